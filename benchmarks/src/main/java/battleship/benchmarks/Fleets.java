@@ -0,0 +1,23 @@
+package battleship.benchmarks;
+
+/**
+ * Fleet configurations shared by benchmarks.
+ */
+final class Fleets {
+    private Fleets() {
+    }
+
+    /**
+     * @param size    size of the square ocean (10 or 30)
+     * @param density "standard" or "dense"
+     * @return number of ships of every type (from Carrier to Submarine)
+     */
+    static int[] counters(int size, String density) {
+        boolean dense = density.equals("dense");
+        return switch (size) {
+            case 10 -> dense ? new int[]{2, 2, 2, 3, 4} : new int[]{1, 1, 2, 3, 4};
+            case 30 -> dense ? new int[]{10, 10, 10, 10, 10} : new int[]{5, 5, 5, 5, 5};
+            default -> throw new IllegalArgumentException("Unknown ocean size: " + size);
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package battleship.benchmarks;
+
+import battleship.server.HttpGameServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test of the HTTP game API on localhost.
+ * Every client thread creates games one after another and shoots on the cells in random order until the game is over.
+ * Prints requests per second and request latency percentiles.
+ * <p>
+ * Usage: java -cp benchmarks.jar battleship.benchmarks.HttpLoadGenerator &lt;clients&gt; &lt;games per client&gt;
+ * [&lt;base URI&gt;] (without URI the server is started in this process).
+ */
+public final class HttpLoadGenerator {
+    private static final int SIZE = 10;
+    private static final String NEW_GAME = "{\"width\":" + SIZE + ",\"height\":" + SIZE + ",\"counters\":[1,1,1,1,1]}";
+
+    private HttpLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Required values: <clients> <games per client> (optional: <base URI>)");
+            return;
+        }
+        int clients = Integer.parseInt(args[0]);
+        int games = Integer.parseInt(args[1]);
+
+        HttpGameServer server = null;
+        String base;
+        if (args.length == 3) {
+            base = args[2];
+        } else {
+            // the same as ServerMain: small responses don't wait for the delayed ACK
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            server = new HttpGameServer(0, 42);
+            server.start();
+            base = "http://localhost:" + server.getPort();
+        }
+        try {
+            run(URI.create(base + "/games"), clients, games);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void run(URI games, int clients, int gamesPerClient) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        SplittableRandom random = new SplittableRandom(7);
+
+        long start = System.nanoTime();
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            SplittableRandom clientRandom = random.split();
+            results.add(executor.submit(() -> play(client, games, gamesPerClient, clientRandom)));
+        }
+        long[] latencies = new long[0];
+        for (Future<long[]> result : results) {
+            long[] clientLatencies = result.get();
+            int length = latencies.length;
+            latencies = Arrays.copyOf(latencies, length + clientLatencies.length);
+            System.arraycopy(clientLatencies, 0, latencies, length, clientLatencies.length);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("clients: %d, requests: %d, time: %.3f s, requests/s: %.0f%n",
+                clients, latencies.length, elapsed / 1e9, latencies.length * 1e9 / elapsed);
+        System.out.printf("latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6,
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * @return latencies of all requests of the client
+     */
+    private static long[] play(HttpClient client, URI games, int count, SplittableRandom random)
+            throws IOException, InterruptedException {
+        long[] latencies = new long[count * (SIZE * SIZE + 1)];
+        int requests = 0;
+        int[] cells = new int[SIZE * SIZE];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        for (int game = 0; game < count; game++) {
+            long start = System.nanoTime();
+            String created = post(client, games, NEW_GAME);
+            latencies[requests++] = System.nanoTime() - start;
+            // {"id":<id>,...
+            URI shots = URI.create(games + "/" + created.substring(6, created.indexOf(',')) + "/shots");
+
+            for (int i = cells.length - 1; i >= 0; i--) {
+                int j = random.nextInt(i + 1);
+                int cell = cells[j];
+                cells[j] = cells[i];
+                cells[i] = cell;
+
+                start = System.nanoTime();
+                String result = post(client, shots, "{\"x\":" + cell % SIZE + ",\"y\":" + cell / SIZE + "}");
+                latencies[requests++] = System.nanoTime() - start;
+                if (result.contains("\"over\":true")) break;
+            }
+        }
+        return Arrays.copyOf(latencies, requests);
+    }
+
+    private static String post(HttpClient client, URI uri, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300)
+            throw new IOException("Unexpected response " + response.statusCode() + ": " + response.body());
+        return response.body();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+}
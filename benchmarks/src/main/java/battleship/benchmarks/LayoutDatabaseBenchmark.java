@@ -0,0 +1,75 @@
+package battleship.benchmarks;
+
+import battleship.model.game.Game;
+import battleship.model.game.ocean.LayoutDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game creation with ships placed from the layout database vs placement by the search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LayoutDatabaseBenchmark {
+    private static final int LAYOUTS = 20_000;
+
+    @Param({"10", "30"})
+    public int size;
+
+    @Param({"standard", "dense"})
+    public String density;
+
+    private int[] counters;
+    private SplittableRandom random;
+    private Path file;
+    private LayoutDatabase database;
+
+    @Setup
+    public void setUp() throws IOException {
+        counters = Fleets.counters(size, density);
+        random = new SplittableRandom(42);
+        file = Files.createTempFile("layouts", ".db");
+        LayoutDatabase.generate(file, List.of(new LayoutDatabase.Configuration(size, size, counters)), LAYOUTS, 42);
+        database = LayoutDatabase.open(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Game database() {
+        Game game = new Game(size, size);
+        game.placeShipsOnOcean(counters, random, database);
+        return game;
+    }
+
+    @Benchmark
+    public Game search() {
+        Game game = new Game(size, size);
+        game.placeShipsOnOcean(counters, random);
+        return game;
+    }
+}
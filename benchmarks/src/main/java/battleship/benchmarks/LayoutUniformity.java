@@ -0,0 +1,167 @@
+package battleship.benchmarks;
+
+import battleship.model.game.ocean.Ocean;
+import battleship.model.game.ocean.Point;
+import battleship.model.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Uniformity of the random layouts on the small ocean, where all legal layouts can be enumerated.
+ * Every placement draws the layouts, and their frequencies are compared with the uniform distribution:
+ * total variation distance and the ratio between the most and the least frequent layout.
+ * Exact uniform sampler (random layout from the enumeration) shows the noise of the sample size.
+ * <p>
+ * Usage: java -cp benchmarks.jar battleship.benchmarks.LayoutUniformity [&lt;samples&gt;]
+ */
+public final class LayoutUniformity {
+    private static final int DEFAULT_SAMPLES = 1_000_000;
+    private static final int MAX_LENGTH = 5;
+    private static final Configuration[] CONFIGURATIONS = {
+            new Configuration(5, new int[]{0, 0, 1, 1, 1}),
+            new Configuration(6, new int[]{0, 1, 1, 1, 1}),
+            new Configuration(7, new int[]{0, 1, 1, 2, 0}),
+    };
+
+    private LayoutUniformity() {
+    }
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SAMPLES;
+        for (Configuration configuration : CONFIGURATIONS) {
+            List<Key> layouts = configuration.enumerate();
+            Map<Key, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < layouts.size(); i++) {
+                indexes.put(layouts.get(i), i);
+            }
+            System.out.println(configuration.size + "x" + configuration.size + " " +
+                    Arrays.toString(configuration.counters) + ": " + layouts.size() + " layouts");
+
+            int size = configuration.size;
+            int[] counters = configuration.counters;
+            SplittableRandom random = new SplittableRandom(42);
+            report("exact", samples, indexes, () -> layouts.get(random.nextInt(layouts.size())));
+            report("uniformPlace", samples, indexes, () -> Key.of(Ocean.uniformPlace(
+                    Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random)));
+            report("sequentialPlace", samples, indexes, () -> Key.of(Ocean.sequentialPlace(
+                    Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random)));
+            report("randomPlace", samples, indexes, () -> Key.of(Ocean.randomPlace(
+                    Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random)));
+            report("greedyPlace", samples, indexes, () -> Key.of(PlacementBenchmark.greedyPlace(size, counters, random)));
+        }
+    }
+
+    private static void report(String name, int samples, Map<Key, Integer> indexes, Supplier<Key> sampler) {
+        long[] frequencies = new long[indexes.size()];
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            Integer index = indexes.get(sampler.get());
+            if (index == null) throw new IllegalStateException(name + " has drawn illegal layout");
+            ++frequencies[index];
+        }
+        long nanos = System.nanoTime() - start;
+
+        double expected = (double) samples / frequencies.length;
+        double distance = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long frequency : frequencies) {
+            distance += Math.abs(frequency - expected);
+            min = Math.min(min, frequency);
+            max = Math.max(max, frequency);
+        }
+        distance /= 2.0 * samples;
+        System.out.printf("  %-15s TV distance %.4f, max/min %s, %.2f us/layout%n", name, distance,
+                min == 0 ? "inf (never drawn: some layouts)" : "%.2f".formatted((double) max / min),
+                nanos / 1e3 / samples);
+    }
+
+    /**
+     * Layout as the set of occupied cells by ship length (identical ships are not distinguished).
+     */
+    private record Key(List<Long> masks) {
+        static Key of(Ocean ocean) {
+            Long[] masks = new Long[MAX_LENGTH + 1];
+            Arrays.fill(masks, 0L);
+            for (int id = 1; id <= ocean.getShipsCount(); id++) {
+                int length = ocean.getShipById(id).getLength();
+                for (Point point : ocean.getPointsOccupiedByShip(id)) {
+                    masks[length] |= 1L << (point.y() * ocean.getSizeHorizontal() + point.x());
+                }
+            }
+            return new Key(List.of(masks));
+        }
+    }
+
+    /**
+     * Square ocean and number of ships of every type (from Carrier to Submarine).
+     */
+    private record Configuration(int size, int[] counters) {
+        /**
+         * @return all legal layouts (ships from the longest, identical ships in increasing order of cells)
+         */
+        List<Key> enumerate() {
+            int[] lengths = Ship.convertInputIntegersToShips(counters).stream().mapToInt(Ship::getLength).toArray();
+            List<Key> layouts = new ArrayList<>();
+            enumerate(lengths, 0, 0, new int[size * size], new long[MAX_LENGTH + 1], layouts);
+            return layouts;
+        }
+
+        private void enumerate(int[] lengths, int ship, int firstCell, int[] forbidden, long[] masks, List<Key> layouts) {
+            if (ship == lengths.length) {
+                Long[] copy = new Long[MAX_LENGTH + 1];
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = masks[i];
+                }
+                layouts.add(new Key(List.of(copy)));
+                return;
+            }
+            int length = lengths[ship];
+            for (int cell = firstCell; cell < size * size; cell++) {
+                for (int vertical = 0; vertical < (length == 1 ? 1 : 2); vertical++) {
+                    int x = cell % size;
+                    int y = cell / size;
+                    int endX = vertical == 1 ? x : x + length - 1;
+                    int endY = vertical == 1 ? y + length - 1 : y;
+                    if (endX >= size || endY >= size || !isFree(forbidden, x, y, endX, endY)) continue;
+
+                    long bits = 0;
+                    for (int j = y; j <= endY; j++) {
+                        for (int i = x; i <= endX; i++) {
+                            bits |= 1L << (j * size + i);
+                        }
+                    }
+                    mark(forbidden, x, y, endX, endY, 1);
+                    masks[length] |= bits;
+                    boolean same = ship + 1 < lengths.length && lengths[ship + 1] == length;
+                    enumerate(lengths, ship + 1, same ? cell + 1 : 0, forbidden, masks, layouts);
+                    masks[length] &= ~bits;
+                    mark(forbidden, x, y, endX, endY, -1);
+                }
+            }
+        }
+
+        private boolean isFree(int[] forbidden, int x, int y, int endX, int endY) {
+            for (int j = y; j <= endY; j++) {
+                for (int i = x; i <= endX; i++) {
+                    if (forbidden[j * size + i] > 0) return false;
+                }
+            }
+            return true;
+        }
+
+        private void mark(int[] forbidden, int x, int y, int endX, int endY, int delta) {
+            for (int j = Math.max(0, y - 1); j <= Math.min(size - 1, endY + 1); j++) {
+                for (int i = Math.max(0, x - 1); i <= Math.min(size - 1, endX + 1); i++) {
+                    forbidden[j * size + i] += delta;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package battleship.benchmarks;
+
+import battleship.model.game.ocean.Ocean;
+import battleship.model.game.ocean.ShipPosition;
+import battleship.model.ships.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Placement of the fleet across ocean sizes and fleet densities: search (Ocean.randomPlace),
+ * searches racing on all processors (Ocean.parallelPlace), uniform sampler (Ocean.uniformPlace),
+ * sequential sampler (Ocean.sequentialPlace) and the old greedy placement by ShipPosition.getRandomShipPosition.
+ * Uniformity of the layouts is checked by {@link LayoutUniformity}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlacementBenchmark {
+    @Param({"10", "30"})
+    public int size;
+
+    @Param({"standard", "dense"})
+    public String density;
+
+    private int[] counters;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        counters = Fleets.counters(size, density);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Ocean randomPlace() {
+        return Ocean.randomPlace(Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random);
+    }
+
+    @Benchmark
+    public Ocean parallelPlace() {
+        return Ocean.parallelPlace(Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public Ocean uniformPlace() {
+        return Ocean.uniformPlace(Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random);
+    }
+
+    @Benchmark
+    public Ocean sequentialPlace() {
+        return Ocean.sequentialPlace(Ship.convertInputIntegersToShips(counters), new Ocean(size, size), random);
+    }
+
+    @Benchmark
+    public Ocean greedyPlace() {
+        return greedyPlace(size, counters, random);
+    }
+
+    /**
+     * Place ships one by one on random positions, start again with the new ocean if some ship cannot be placed.
+     */
+    static Ocean greedyPlace(int size, int[] counters, RandomGenerator random) {
+        while (true) {
+            Ocean ocean = new Ocean(size, size);
+            boolean placed = true;
+            for (Ship ship : Ship.convertInputIntegersToShips(counters)) {
+                if (ShipPosition.getRandomShipPosition(ocean, ship, random) == null) {
+                    placed = false;
+                    break;
+                }
+            }
+            if (placed) return ocean;
+        }
+    }
+}
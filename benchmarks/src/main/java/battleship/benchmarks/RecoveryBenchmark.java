@@ -0,0 +1,69 @@
+package battleship.benchmarks;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.ShotResult;
+import battleship.model.game.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User.onStatusChanged in ship recovery mode: hit of the ship and the miss after it, which rolls the hit back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RecoveryBenchmark {
+    private Game game;
+    private User user;
+    private AttackReport hitReport;
+    private AttackReport missReport;
+
+    @Setup
+    public void setUp() {
+        game = new Game(10, 10);
+        game.placeShipsOnOcean(Fleets.counters(10, "standard"), new SplittableRandom(42));
+        game.setGameMode(Game.recognizeMode(0, true), 0);
+        user = new User();
+        user.setCurrentSession(game);
+
+        // reports are taken from the copy of the game, so the benchmarked game isn't changed
+        Game probe = new Game(10, 10);
+        probe.placeShipsOnOcean(Fleets.counters(10, "standard"), new SplittableRandom(42));
+        probe.setGameMode(Game.recognizeMode(0, false), 0);
+        for (int cell = 0; cell < 100 && (hitReport == null || missReport == null); cell++) {
+            int shotResult = probe.hitOnPlace(cell % 10, cell / 10, FiringMode.GENERAL_FIRING_MODE);
+            AttackReport.HitResult result = ShotResult.getResult(shotResult);
+            if (result == AttackReport.HitResult.HIT && hitReport == null)
+                hitReport = game.getAttackReport(game.getPoint(cell), shotResult);
+            if (result == AttackReport.HitResult.MISS && missReport == null)
+                missReport = game.getAttackReport(game.getPoint(cell), shotResult);
+        }
+    }
+
+    @Benchmark
+    public int hitAndRollback() {
+        // the ship is hit by the previous shot and missed by the current one
+        user.onStatusChanged(hitReport);
+        user.onStatusChanged(missReport);
+        // the hit wasn't applied to the fleet, so take back the restored health
+        game.restorePreviousHealthFleet(-1);
+        game.clearPointsToRecover();
+        return game.getFleetHealth();
+    }
+}
@@ -0,0 +1,78 @@
+package battleship.benchmarks;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.ocean.Point;
+import battleship.model.ships.Submarine;
+import battleship.view.matrixprinter.PrettyMatrixPrinter;
+import battleship.view.oceanview.OceanView;
+import battleship.view.oceanview.ShipCellView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the ocean view with half of the cells attacked:
+ * PrettyMatrixPrinter.print of the cell views and OceanView.printOcean into the reused buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RenderBenchmark {
+    private static final AttackReport.HitResult[] RESULTS = AttackReport.HitResult.values();
+
+    @Param({"10", "30"})
+    public int size;
+
+    private ShipCellView[][] cells;
+    private OceanView oceanView;
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        oceanView = new OceanView(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) continue;
+                AttackReport.HitResult result = RESULTS[random.nextInt(RESULTS.length)];
+                Point point = new Point(x, y);
+                oceanView.updateOceanView(new AttackReport(new Submarine(), result, point, 1,
+                        result == AttackReport.HitResult.SUNK ? List.of(point) : null));
+            }
+        }
+        cells = new ShipCellView[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                ShipCellView cell = oceanView.getCell(x, y);
+                cells[y][x] = cell == ShipCellView.UNKNOWN ? null : cell;
+            }
+        }
+    }
+
+    @Benchmark
+    public String print() {
+        return PrettyMatrixPrinter.print(cells);
+    }
+
+    @Benchmark
+    public StringBuilder printStreaming() {
+        buffer.setLength(0);
+        oceanView.printOcean(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,134 @@
+package battleship.benchmarks;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.GameMode;
+import battleship.model.game.ShotResult;
+import battleship.model.ships.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game.hitOnPlace for miss, hit and sink.
+ * Attacked ship is restored after every hit, so every invocation sees the same state.
+ * The game records the history of shots, so it is replaced by the same new game after every 2^20 shots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ShotBenchmark {
+    private static final long SEED = 42;
+    private static final int SHOTS_PER_GAME = 1 << 20;
+
+    @Param({"10", "30"})
+    public int size;
+
+    private Game game;
+    private int missCell;
+    private int hitCell;
+    private int sinkCell;
+    private Ship hitShip;
+    private Ship sinkShip;
+    private int hitShipId;
+    private int sinkShipId;
+    private int shots;
+
+    @Setup
+    public void setUp() {
+        game = createGame();
+
+        // find cells on the copy of the game with the same layout
+        Game probe = createGame();
+        boolean[] attackedShips = new boolean[size * size];
+        missCell = hitCell = sinkCell = -1;
+        for (int cell = 0; cell < size * size; cell++) {
+            int shotResult = probe.hitOnPlace(cell % size, cell / size, FiringMode.GENERAL_FIRING_MODE);
+            AttackReport.HitResult result = ShotResult.getResult(shotResult);
+            int shipId = ShotResult.getShipId(shotResult);
+            if (result == AttackReport.HitResult.MISS && missCell < 0) {
+                missCell = cell;
+            } else if (result == AttackReport.HitResult.HIT && hitCell < 0) {
+                hitCell = cell;
+                hitShipId = shipId;
+            } else if (result == AttackReport.HitResult.SUNK && !attackedShips[shipId] && sinkCell < 0) {
+                // the first hit sinks submarine only
+                sinkCell = cell;
+                sinkShipId = shipId;
+            }
+            attackedShips[shipId] = true;
+        }
+        hitShip = getShip(hitCell, hitShipId);
+        sinkShip = getShip(sinkCell, sinkShipId);
+    }
+
+    private Ship getShip(int cell, int shipId) {
+        return game.getAttackReport(game.getPoint(cell), ShotResult.pack(AttackReport.HitResult.HIT, shipId, 0)).getShip();
+    }
+
+    private void countShot() {
+        if (++shots < SHOTS_PER_GAME) return;
+        shots = 0;
+        game = createGame();
+        hitShip = getShip(hitCell, hitShipId);
+        sinkShip = getShip(sinkCell, sinkShipId);
+    }
+
+    private Game createGame() {
+        Game newGame = new Game(size, size);
+        newGame.placeShipsOnOcean(Fleets.counters(size, "standard"), new SplittableRandom(SEED));
+        newGame.setGameMode(EnumSet.of(GameMode.NO_OPTIONS), 0);
+        return newGame;
+    }
+
+    @Benchmark
+    public int miss() {
+        countShot();
+        return game.hitOnPlace(missCell % size, missCell / size, FiringMode.GENERAL_FIRING_MODE);
+    }
+
+    @Benchmark
+    public int hit() {
+        countShot();
+        int shotResult = game.hitOnPlace(hitCell % size, hitCell / size, FiringMode.GENERAL_FIRING_MODE);
+        restore(hitShip);
+        return shotResult;
+    }
+
+    @Benchmark
+    public int sink() {
+        countShot();
+        int shotResult = game.hitOnPlace(sinkCell % size, sinkCell / size, FiringMode.GENERAL_FIRING_MODE);
+        restore(sinkShip);
+        return shotResult;
+    }
+
+    @Benchmark
+    public AttackReport sinkWithReport() {
+        countShot();
+        AttackReport report = game.hitOnPlace(game.getPoint(sinkCell), FiringMode.GENERAL_FIRING_MODE);
+        restore(sinkShip);
+        return report;
+    }
+
+    private void restore(Ship ship) {
+        ship.restoreHealthInRecoveryMode();
+        game.restorePreviousHealthFleet(1);
+    }
+}
@@ -0,0 +1,138 @@
+package battleship.benchmarks;
+
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.GameSnapshot;
+import battleship.model.game.user.User;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Round-trip check of the game snapshot format. Random games (with torpedoes and recovery mode) are encoded
+ * at random moments, the decoded game must encode to the same bytes and continue with the same shot results
+ * and the same snapshots as the original. Every cut snapshot must be rejected with IllegalArgumentException,
+ * damaged snapshot must be rejected the same way or decoded to a game whose snapshot round-trips.
+ * <p>
+ * Usage: java -cp benchmarks.jar battleship.benchmarks.SnapshotRoundTrip [&lt;games&gt;] [&lt;seed&gt;]
+ * (exit code 1 if any check fails).
+ */
+public final class SnapshotRoundTrip {
+    private static final int DEFAULT_GAMES = 200;
+
+    private SnapshotRoundTrip() {
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        SplittableRandom random = new SplittableRandom(seed);
+        int snapshots = 0;
+        try {
+            for (int i = 0; i < games; i++) {
+                snapshots += checkGame(random);
+            }
+        } catch (IllegalStateException exception) {
+            System.out.println("FAILED: " + exception.getMessage());
+            System.exit(1);
+        }
+        System.out.println("OK: " + games + " games, " + snapshots + " snapshots (seed " + seed + ")");
+    }
+
+    private static int checkGame(SplittableRandom random) {
+        int width = random.nextInt(10, 31);
+        int height = random.nextInt(10, 31);
+        int[] counters = Fleets.counters(10, random.nextBoolean() ? "standard" : "dense");
+        int torpedoes = random.nextInt(3);
+        boolean recovery = random.nextBoolean();
+
+        Game game = new Game(width, height, random.nextLong());
+        game.placeShipsOnOcean(counters);
+        game.setGameMode(Game.recognizeMode(torpedoes, recovery), torpedoes);
+        User user = new User();
+        game.addListener(user);
+        user.setCurrentSession(game);
+
+        int snapshots = 0;
+        while (game.getFleetHealth() > 0) {
+            if (random.nextInt(64) == 0) {
+                checkSnapshot(game, user, width, height, random);
+                ++snapshots;
+            }
+            shoot(user, random.nextInt(width), random.nextInt(height), nextMode(game, random));
+        }
+        checkSnapshot(game, user, width, height, random);
+        return snapshots + 1;
+    }
+
+    /**
+     * Check the snapshot of the game, then continue the original and the restored game with the same shots.
+     */
+    private static void checkSnapshot(Game game, User user, int width, int height, SplittableRandom random) {
+        byte[] bytes = GameSnapshot.encode(game, user);
+        GameSnapshot restored = GameSnapshot.decode(bytes);
+        check(Arrays.equals(bytes, GameSnapshot.encode(restored.getGame(), restored.getUser())), "re-encoded snapshot");
+        checkDamaged(bytes, random);
+
+        for (int i = 0; i < 8 && game.getFleetHealth() > 0; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            FiringMode mode = nextMode(game, random);
+            check(shoot(user, x, y, mode) == shoot(restored.getUser(), x, y, mode), "shot result after restore");
+        }
+        check(Arrays.equals(GameSnapshot.encode(game, user),
+                GameSnapshot.encode(restored.getGame(), restored.getUser())), "snapshot after continued play");
+    }
+
+    private static FiringMode nextMode(Game game, SplittableRandom random) {
+        return game.getAvailableTorpedo() > 0 && random.nextInt(8) == 0 ?
+                FiringMode.TORPEDO_FIRING_MODE : FiringMode.GENERAL_FIRING_MODE;
+    }
+
+    /**
+     * @return packed shot result
+     */
+    private static int shoot(User user, int x, int y, FiringMode mode) {
+        return user.hitOnPlace(x, y, mode);
+    }
+
+    private static void checkDamaged(byte[] bytes, SplittableRandom random) {
+        for (int i = 0; i < 16; i++) {
+            int length = random.nextInt(bytes.length);
+            expectRejected(Arrays.copyOf(bytes, length), "snapshot cut to " + length + " bytes");
+
+            byte[] damaged = bytes.clone();
+            damaged[random.nextInt(damaged.length)] ^= (byte) (1 << random.nextInt(8));
+            decodeDamaged(damaged);
+        }
+    }
+
+    private static void expectRejected(byte[] bytes, String name) {
+        try {
+            GameSnapshot.decode(bytes);
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new IllegalStateException(name + " has been decoded");
+    }
+
+    private static void decodeDamaged(byte[] bytes) {
+        GameSnapshot snapshot;
+        try {
+            snapshot = GameSnapshot.decode(bytes);
+        } catch (IllegalArgumentException expected) {
+            return;
+        } catch (RuntimeException exception) {
+            throw new IllegalStateException("damaged snapshot: " + exception, exception);
+        }
+        // damaged unused bits may be dropped, but the decoded game must round-trip itself
+        byte[] encoded = GameSnapshot.encode(snapshot.getGame(), snapshot.getUser());
+        GameSnapshot again = GameSnapshot.decode(encoded);
+        check(Arrays.equals(encoded, GameSnapshot.encode(again.getGame(), again.getUser())),
+                "snapshot decoded from damaged bytes doesn't round-trip");
+    }
+
+    private static void check(boolean condition, String name) {
+        if (!condition) throw new IllegalStateException(name);
+    }
+}
@@ -0,0 +1,174 @@
+package battleship.benchmarks;
+
+import battleship.server.GameServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Load test of the TCP game server on localhost.
+ * Every connection plays its games one after another: "new" command and shots on all cells in random order
+ * are sent at once, the next game starts when all responses of the previous one have been received.
+ * Prints commands per second and latency of the game (from the first command to the last response).
+ * <p>
+ * Usage: java -cp benchmarks.jar battleship.benchmarks.TcpLoadGenerator &lt;connections&gt; &lt;games per connection&gt;
+ * [&lt;host&gt; &lt;port&gt;] (without host and port the server is started in this process).
+ */
+public final class TcpLoadGenerator {
+    private static final int SIZE = 10;
+    private static final String NEW_GAME = "new " + SIZE + " " + SIZE + " 1 1 1 1 1\n";
+    private static final int LINES_PER_GAME = SIZE * SIZE + 1;
+
+    private TcpLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.out.println("Required values: <connections> <games per connection> (optional: <host> <port>)");
+            return;
+        }
+        int connections = Integer.parseInt(args[0]);
+        int games = Integer.parseInt(args[1]);
+
+        GameServer server = null;
+        InetSocketAddress address;
+        if (args.length == 4) {
+            address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+        } else {
+            int loops = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            server = new GameServer(0, loops, 42);
+            server.start();
+            address = new InetSocketAddress("localhost", server.getPort());
+            System.out.println("embedded server: " + loops + " event loops");
+        }
+        try {
+            run(address, connections, games);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void run(InetSocketAddress address, int connections, int games) throws IOException {
+        long[] latencies = new long[connections * games];
+        int finished = 0;
+        int open = connections;
+        SplittableRandom random = new SplittableRandom(7);
+
+        long start = System.nanoTime();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, new Client(games, random.split()));
+            }
+
+            while (open > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    Client client = (Client) key.attachment();
+
+                    if (key.isConnectable()) {
+                        channel.finishConnect();
+                        client.nextGame();
+                    }
+                    if (key.isReadable()) {
+                        int completed = client.read(channel);
+                        if (completed < 0) {
+                            throw new IOException("Server has closed the connection");
+                        }
+                        if (completed > 0) {
+                            latencies[finished++] = System.nanoTime() - client.gameStart;
+                            if (client.gamesLeft == 0) {
+                                channel.close();
+                                --open;
+                                continue;
+                            }
+                            client.nextGame();
+                        }
+                    }
+                    if (client.output.hasRemaining()) channel.write(client.output);
+                    key.interestOps(client.output.hasRemaining() ?
+                            SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies, 0, finished);
+        long commands = (long) finished * LINES_PER_GAME;
+        System.out.printf("connections: %d, games: %d, commands: %d, time: %.3f s%n",
+                connections, finished, commands, elapsed / 1e9);
+        System.out.printf("commands/s: %.0f, games/s: %.0f%n", commands * 1e9 / elapsed, finished * 1e9 / elapsed);
+        System.out.printf("game latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(latencies, finished, 0.5) / 1e6, percentile(latencies, finished, 0.99) / 1e6,
+                latencies[finished - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, int count, double percentile) {
+        return sorted[Math.min(count - 1, (int) (count * percentile))];
+    }
+
+    /**
+     * State of one connection: commands of the current game and number of received responses.
+     */
+    private static final class Client {
+        private final ByteBuffer output = ByteBuffer.allocate(LINES_PER_GAME * 8);
+        private final ByteBuffer input = ByteBuffer.allocate(8192);
+        private final int[] cells = new int[SIZE * SIZE];
+        private final SplittableRandom random;
+        private int gamesLeft;
+        private int responses;
+        private long gameStart;
+
+        private Client(int games, SplittableRandom random) {
+            this.random = random;
+            gamesLeft = games;
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = i;
+            }
+        }
+
+        private void nextGame() {
+            --gamesLeft;
+            responses = 0;
+            output.clear();
+            output.put(NEW_GAME.getBytes(StandardCharsets.US_ASCII));
+            for (int i = cells.length - 1; i >= 0; i--) {
+                int j = random.nextInt(i + 1);
+                int cell = cells[j];
+                cells[j] = cells[i];
+                cells[i] = cell;
+                output.put((byte) ('0' + cell % SIZE)).put((byte) ' ').put((byte) ('0' + cell / SIZE)).put((byte) '\n');
+            }
+            output.flip();
+            gameStart = System.nanoTime();
+        }
+
+        /**
+         * @return 1 if all responses of the game have been received, 0 if not yet, -1 if the connection is closed
+         */
+        private int read(SocketChannel channel) throws IOException {
+            input.clear();
+            int read = channel.read(input);
+            if (read < 0) return -1;
+            for (int i = 0; i < read; i++) {
+                if (input.get(i) == '\n') ++responses;
+            }
+            return responses == LINES_PER_GAME ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package battleship.application;
+
+import battleship.model.game.ocean.Feasibility;
+import battleship.model.game.ocean.LayoutCounter;
+
+import java.util.Arrays;
+
+public class LayoutCounterMain {
+    private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired values: <horizontalSize> <verticalSize>" +
+            " <Carriers counter> <Battleship counter> <Cruisers counter> <Destroyer counter> <Submarine counter>" +
+            " and optional <samples> <seed> for the estimate.";
+    private static final int CONFIGURATION_ARGS = 7;
+    private static final int DEFAULT_SAMPLES = 100_000;
+
+    public static void main(String[] args) {
+        if (args.length < CONFIGURATION_ARGS || args.length > CONFIGURATION_ARGS + 2) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            return;
+        }
+        try {
+            int[] parameters = Main.parse(Arrays.copyOf(args, CONFIGURATION_ARGS));
+            int sizeHorizontal = parameters[0];
+            int sizeVertical = parameters[1];
+            int[] counters = Arrays.copyOfRange(parameters, 2, CONFIGURATION_ARGS);
+            int samples = args.length > CONFIGURATION_ARGS ? Integer.parseInt(args[CONFIGURATION_ARGS]) : DEFAULT_SAMPLES;
+            long seed = args.length > CONFIGURATION_ARGS + 1 ? Long.parseLong(args[CONFIGURATION_ARGS + 1]) : 0;
+
+            long start = System.nanoTime();
+            if (LayoutCounter.checkFeasibility(sizeHorizontal, sizeVertical, counters) == Feasibility.INFEASIBLE) {
+                System.out.println("No layouts: the fleet cannot be placed on this ocean");
+            } else if (LayoutCounter.canCountExactly(sizeHorizontal, sizeVertical)) {
+                System.out.println("Layouts: " + LayoutCounter.count(sizeHorizontal, sizeVertical, counters));
+            } else {
+                System.out.println("Layouts (estimate): " +
+                        LayoutCounter.estimate(sizeHorizontal, sizeVertical, counters, samples, seed));
+            }
+            System.out.printf("%.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        } catch (NumberFormatException nfe) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+        } catch (Exception exception) {
+            System.out.println("Error has been occurred!");
+            System.out.println(exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package battleship.application;
+
+import battleship.model.game.ocean.LayoutDatabase;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LayoutGeneratorMain {
+    private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired values: <database file> <layouts>" +
+            " <seed> and for every configuration: <horizontalSize> <verticalSize> <Carriers counter>" +
+            " <Battleship counter> <Cruisers counter> <Destroyer counter> <Submarine counter>.";
+    private static final int CONFIGURATION_ARGS = 7;
+
+    public static void main(String[] args) {
+        if (args.length < 3 + CONFIGURATION_ARGS || (args.length - 3) % CONFIGURATION_ARGS != 0) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            return;
+        }
+        try {
+            int layouts = Integer.parseInt(args[1]);
+            long seed = Long.parseLong(args[2]);
+            List<LayoutDatabase.Configuration> configurations = new ArrayList<>();
+            for (int i = 3; i < args.length; i += CONFIGURATION_ARGS) {
+                int[] parameters = Main.parse(Arrays.copyOfRange(args, i, i + CONFIGURATION_ARGS));
+                configurations.add(new LayoutDatabase.Configuration(parameters[0], parameters[1],
+                        Arrays.copyOfRange(parameters, 2, CONFIGURATION_ARGS)));
+            }
+
+            long start = System.nanoTime();
+            LayoutDatabase.generate(Path.of(args[0]), configurations, layouts, seed);
+            System.out.printf("%d configurations, %d layouts each: %.1f ms%n",
+                    configurations.size(), layouts, (System.nanoTime() - start) / 1e6);
+
+        } catch (NumberFormatException nfe) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+        } catch (Exception exception) {
+            System.out.println("Error has been occurred!");
+            System.out.println(exception.getMessage());
+        }
+    }
+}
@@ -1,14 +1,37 @@
 
 package battleship.application;
 
+import battleship.controller.BatchController;
 import battleship.controller.BattleshipController;
+import battleship.model.game.journal.CommitPolicy;
+import battleship.model.game.journal.JournalHeader;
+import battleship.model.game.journal.JournalWriter;
 import battleship.view.BattleshipView;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public class Main {
     private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired integers values: <horizontalSize> <verticalSize>" +
             " <Carriers counter> <Battleship counter> <Cruisers counter> <Destroyer counter> <Submarine counter>.";
+    private static final String BATCH_ARGS_ERROR = "Args are incorrect!\nRequired values: --batch <horizontalSize> <verticalSize>" +
+            " <Carriers counter> <Battleship counter> <Cruisers counter> <Destroyer counter> <Submarine counter>" +
+            " <torpedoes> <recovery mode: 1 / 0> <seed> <commands file or \"-\" for stdin> (optional: <flush every N turns> <journal file>).";
+    private static final String BATCH_FLAG = "--batch";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
 
     public static void main(String[] args) {
+        if (args.length > 0 && BATCH_FLAG.equals(args[0])) {
+            runBatch(args);
+            return;
+        }
         if (args.length != 0 && args.length != 7) {
             System.out.println(ARGS_TERMINAL_ERROR);
             System.exit(0);
@@ -43,6 +66,55 @@ public class Main {
         }
     }
 
+    /**
+     * Play the game with commands from the file or stdin without any prompts.
+     *
+     * @param args arguments (the first one is the batch flag)
+     */
+    private static void runBatch(String[] args) {
+        if (args.length < 12 || args.length > 14) {
+            System.out.println(BATCH_ARGS_ERROR);
+            return;
+        }
+        PrintStream out = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+        try {
+            int[] parameters = parse(Arrays.copyOfRange(args, 1, 10));
+            int flushEvery = args.length > 12 ? Integer.parseInt(args[12]) : 0;
+            long seed = Long.parseLong(args[10]);
+            int[] counters = Arrays.copyOfRange(parameters, 2, 7);
+            BatchController controller = new BatchController(parameters[0], parameters[1],
+                    counters, parameters[7], parameters[8] == 1, seed, out, flushEvery);
+
+            JournalWriter journal = null;
+            if (args.length > 13) {
+                journal = JournalWriter.create(Path.of(args[13]), new JournalHeader(parameters[0], parameters[1],
+                        counters, parameters[7], parameters[8] == 1, seed), CommitPolicy.GROUP);
+                controller.setJournal(journal);
+            }
+            try {
+                if ("-".equals(args[11])) {
+                    controller.run(System.in);
+                } else {
+                    try (InputStream in = new FileInputStream(args[11])) {
+                        controller.run(in);
+                    }
+                }
+            } finally {
+                if (journal != null) journal.close();
+            }
+        } catch (NumberFormatException nfe) {
+            out.println(BATCH_ARGS_ERROR);
+        } catch (IOException exception) {
+            out.println("Cannot read commands or write journal: " + exception.getMessage());
+        } catch (Exception exception) {
+            out.println("Error has been occurred!");
+            out.println(exception.getMessage());
+        } finally {
+            out.flush();
+        }
+    }
+
     /**
      * Parse input arguments from string to int
      *
@@ -0,0 +1,89 @@
+package battleship.application;
+
+import battleship.model.game.FiringMode;
+import battleship.model.game.ShotResult;
+import battleship.model.game.journal.JournalHeader;
+import battleship.model.game.journal.JournalReader;
+import battleship.model.game.journal.JournalReplay;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ReplayMain {
+    private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired values: <journal file>" +
+            " (optional: --events to print every record).";
+    private static final String EVENTS_FLAG = "--events";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !EVENTS_FLAG.equals(args[1]))) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            return;
+        }
+        PrintStream out = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+        try {
+            Path file = Path.of(args[0]);
+            if (args.length == 2) printEvents(file, out);
+
+            long start = System.nanoTime();
+            JournalReplay replay = JournalReplay.replay(file);
+            long nanos = System.nanoTime() - start;
+
+            JournalHeader header = replay.getHeader();
+            out.println("ocean: " + header.sizeHorizontal() + "x" + header.sizeVertical() +
+                    ", ships: " + Arrays.toString(header.counters()) + ", torpedoes: " + header.torpedoes() +
+                    ", recovery: " + header.recoveryMode() + ", seed: " + header.seed());
+            out.println("shots: " + replay.getShots() + " (salvos: " + replay.getSalvos() + ")" +
+                    ", rejected: " + replay.getRejected() + ", rollbacks: " + replay.getRollbacks() +
+                    ", user actions: " + replay.getUser().getActionsCounter());
+            out.println(replay.getGame().getFleetHealth() > 0 ?
+                    "fleet health remaining: " + replay.getGame().getFleetHealth() +
+                            ", torpedoes remaining: " + replay.getGame().getAvailableTorpedo() :
+                    "fleet destroyed");
+            out.println("valid length: " + replay.getValidLength() + " bytes" +
+                    (replay.isTruncated() ? " (incomplete records at the end skipped)" : ""));
+            out.printf("time: %.3f ms%n", nanos / 1e6);
+        } catch (IOException exception) {
+            out.println("Cannot replay journal: " + exception.getMessage());
+        } catch (Exception exception) {
+            out.println("Error has been occurred!");
+            out.println(exception.getMessage());
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Print every record of the journal, one line per record.
+     */
+    private static void printEvents(Path file, PrintStream out) throws IOException {
+        try (JournalReader reader = new JournalReader(file)) {
+            for (int type = reader.next(); type != JournalReader.END; type = reader.next()) {
+                switch (type) {
+                    case JournalReader.SHOT -> out.println(shot(reader) + " " +
+                            ShotResult.getResult(reader.getShotResult()) +
+                            " " + ShotResult.getFleetHealthRemaining(reader.getShotResult()));
+                    case JournalReader.REJECTED -> out.println(shot(reader) + " REJECTED");
+                    case JournalReader.SALVO -> out.println("SALVO " + reader.getCount());
+                    default -> {
+                        out.print("ROLLBACK " + reader.getFleetHealth());
+                        for (int i = 0; i < reader.getCount(); i++) {
+                            out.print(" " + reader.getPointX(i) + "," + reader.getPointY(i));
+                        }
+                        out.println();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String shot(JournalReader reader) {
+        return (reader.getFiringMode() == FiringMode.TORPEDO_FIRING_MODE ? "T " : "") + reader.getX() + " " + reader.getY();
+    }
+}
@@ -0,0 +1,74 @@
+package battleship.application;
+
+import battleship.server.GameServer;
+import battleship.server.HttpGameServer;
+
+import java.io.IOException;
+
+public class ServerMain {
+    private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired values: <port>" +
+            " (optional: <event loops> <seed>) or --http <port> (optional: <seed>).";
+    private static final String HTTP_FLAG = "--http";
+
+    public static void main(String[] args) {
+        if (args.length > 0 && HTTP_FLAG.equals(args[0])) {
+            runHttp(args);
+            return;
+        }
+        if (args.length < 1 || args.length > 3) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            System.exit(0);
+        }
+        try {
+            int port = Integer.parseInt(args[0]);
+            int eventLoops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+            GameServer server = new GameServer(port, eventLoops, seed);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException exception) {
+                    System.out.println(exception.getMessage());
+                }
+            }));
+            server.start();
+            System.out.println("Battleship server is listening on port " + server.getPort() +
+                    " (event loops: " + eventLoops + ", seed: " + seed + ")");
+
+        } catch (NumberFormatException nfe) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+        } catch (Exception exception) {
+            System.out.println("Error has been occurred!");
+            System.out.println(exception.getMessage());
+        }
+    }
+
+    private static void runHttp(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            return;
+        }
+        try {
+            int port = Integer.parseInt(args[1]);
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+            // headers and body of the response are written separately, so with Nagle's algorithm small responses
+            // wait for the delayed ACK of the client. The property is global: it applies to every HttpServer
+            // of the process, so it is set only here (unless it is set on the command line).
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            HttpGameServer server = new HttpGameServer(port, seed);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.start();
+            System.out.println("Battleship HTTP server is listening on port " + server.getPort() + " (seed: " + seed + ")");
+
+        } catch (NumberFormatException nfe) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+        } catch (Exception exception) {
+            System.out.println("Error has been occurred!");
+            System.out.println(exception.getMessage());
+        }
+    }
+}
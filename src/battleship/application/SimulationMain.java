@@ -0,0 +1,51 @@
+package battleship.application;
+
+import battleship.metrics.Metrics;
+import battleship.simulation.ProbabilityDensityStrategy;
+import battleship.simulation.RandomShootingStrategy;
+import battleship.simulation.ShootingStrategyFactory;
+import battleship.simulation.SimulationResult;
+import battleship.simulation.Simulator;
+
+import java.util.Arrays;
+
+public class SimulationMain {
+    private static final String ARGS_TERMINAL_ERROR = "Args are incorrect!\nRequired values: <horizontalSize> <verticalSize>" +
+            " <Carriers counter> <Battleship counter> <Cruisers counter> <Destroyer counter> <Submarine counter>" +
+            " <games> (optional: <seed> <strategy: random / density>).";
+
+    public static void main(String[] args) {
+        if (args.length < 8 || args.length > 10) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+            System.exit(0);
+        }
+        try {
+            int[] parameters = Main.parse(Arrays.copyOfRange(args, 0, 7));
+            long games = Long.parseLong(args[7]);
+            long seed = args.length > 8 ? Long.parseLong(args[8]) : System.nanoTime();
+            ShootingStrategyFactory strategy = getStrategy(args.length > 9 ? args[9] : "random");
+
+            Simulator simulator = new Simulator(parameters[0], parameters[1],
+                    Arrays.copyOfRange(parameters, 2, 7), strategy);
+            SimulationResult result = simulator.run(games, seed);
+            System.out.println("seed: " + seed);
+            System.out.println(result);
+            if (Metrics.ENABLED) System.out.print(Metrics.snapshot());
+
+        } catch (NumberFormatException nfe) {
+            System.out.println(ARGS_TERMINAL_ERROR);
+        } catch (Exception exception) {
+            System.out.println("Error has been occurred!");
+            System.out.println(exception.getMessage());
+        }
+    }
+
+    private static ShootingStrategyFactory getStrategy(String name) throws IllegalArgumentException {
+        return switch (name) {
+            case "random" -> (sizeHorizontal, sizeVertical, counters, random) ->
+                    new RandomShootingStrategy(sizeHorizontal, sizeVertical, random);
+            case "density" -> ProbabilityDensityStrategy::new;
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+}
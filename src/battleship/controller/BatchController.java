@@ -0,0 +1,155 @@
+package battleship.controller;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.GameJournal;
+import battleship.model.game.user.User;
+import battleship.view.oceanview.OceanView;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * Non-interactive game: shot commands are read from the stream (file or pipe) and results are written
+ * one line per command into the buffered output, which is flushed every N turns and at the end.
+ * The game is fully defined by the configuration and the seed, so recorded sessions can be replayed.
+ */
+public class BatchController {
+    private final Game game;
+    private final User user;
+    private final OceanView oceanView;
+    private final PrintStream out;
+    private final int flushEvery;
+    private final long seed;
+    private final Command command = new Command();
+
+    private int turns;
+    private int shots;
+    private int torpedoShots;
+    private int hits;
+    private int sunk;
+    private int rejected;
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param torpedoes      number of available torpedoes (0 - torpedo mode disabled)
+     * @param recoveryMode   ship recovery mode enabled
+     * @param seed           seed of the ships layout
+     * @param out            output (should not flush automatically)
+     * @param flushEvery     flush output every N turns (0 - only at the end)
+     * @throws IllegalArgumentException if configuration is incorrect
+     * @throws RuntimeException         if ships cannot be placed on this ocean
+     */
+    public BatchController(int sizeHorizontal, int sizeVertical, int[] counters, int torpedoes,
+                           boolean recoveryMode, long seed, PrintStream out, int flushEvery) throws RuntimeException {
+        if (flushEvery < 0)
+            throw new IllegalArgumentException("Flush interval must be no less than 0");
+        this.out = out;
+        this.flushEvery = flushEvery;
+        this.seed = seed;
+
+        game = new Game(sizeHorizontal, sizeVertical, seed);
+        game.placeShipsOnOcean(counters);
+        game.setGameMode(Game.recognizeMode(torpedoes, recoveryMode), torpedoes);
+        user = new User();
+        game.addListener(user);
+        user.setCurrentSession(game);
+        oceanView = new OceanView(sizeHorizontal, sizeVertical);
+    }
+
+    /**
+     * Set the journal of the game (must be set before the first command).
+     *
+     * @param journal journal (null - no journal)
+     */
+    public void setJournal(GameJournal journal) {
+        game.setJournal(journal);
+    }
+
+    /**
+     * Execute all commands of the stream until the end of the stream, "exit" or the end of the game,
+     * then print the final ocean and the summary.
+     *
+     * @param in stream of commands
+     */
+    public void run(InputStream in) {
+        CommandReader reader = new CommandReader(in);
+        long start = System.nanoTime();
+        while (game.getFleetHealth() > 0 && reader.readLine()) {
+            reader.parseLine(command);
+            if (command.getType() == Command.Type.EXIT) break;
+            if (command.getType() == Command.Type.EMPTY || command.getType() == Command.Type.HELP) continue;
+
+            ++turns;
+            out.print(turns);
+            out.print(' ');
+            if (command.getType() == Command.Type.SHOT) {
+                executeCommand();
+            } else {
+                ++rejected;
+                out.println("INVALID");
+            }
+            if (flushEvery > 0 && turns % flushEvery == 0) out.flush();
+        }
+        printSummary(System.nanoTime() - start);
+        out.flush();
+    }
+
+    private void executeCommand() {
+        int x = command.getX();
+        int y = command.getY();
+        if (x < 0 || x >= oceanView.getOceanHorizontalLength() || y < 0 || y >= oceanView.getOceanVerticalLength()) {
+            ++rejected;
+            out.println("OUT_OF_OCEAN");
+            return;
+        }
+        AttackReport report;
+        try {
+            report = user.hitOnPlace(game.getPoint(x, y), command.getMode());
+        } catch (IllegalArgumentException ex) {
+            ++rejected;
+            out.println("REJECTED " + ex.getMessage());
+            return;
+        }
+
+        ++shots;
+        if (command.getMode() == FiringMode.TORPEDO_FIRING_MODE) ++torpedoShots;
+        if (report.getResult() != AttackReport.HitResult.MISS) ++hits;
+        if (report.getResult() == AttackReport.HitResult.SUNK) ++sunk;
+        oceanView.updateOceanView(report);
+
+        out.print(command.getMode() == FiringMode.TORPEDO_FIRING_MODE ? "T " : "");
+        out.print(x);
+        out.print(' ');
+        out.print(y);
+        out.print(' ');
+        out.print(report.getResult());
+        if (report.getResult() == AttackReport.HitResult.SUNK) {
+            out.print(' ');
+            out.print(report.getShip());
+        }
+
+        // Recovery ship mode
+        var pointsToRecover = game.getPointsToRecover();
+        if (pointsToRecover != null && !pointsToRecover.isEmpty()) {
+            oceanView.recoverShipCellsByPoints(pointsToRecover);
+            game.clearPointsToRecover();
+            out.print(" RECOVERED");
+        }
+        out.println();
+    }
+
+    private void printSummary(long nanos) {
+        oceanView.printOcean(out);
+        out.println("seed: " + seed);
+        out.println("turns: " + turns + ", shots: " + shots + " (torpedoes: " + torpedoShots + ")" +
+                ", hits: " + hits + ", sunk: " + sunk + ", rejected: " + rejected);
+        out.println(game.getFleetHealth() > 0 ?
+                "fleet health remaining: " + game.getFleetHealth() :
+                "fleet destroyed, total shots: " + user.getActionsCounter());
+        out.printf("time: %.3f ms%n", nanos / 1e6);
+    }
+}
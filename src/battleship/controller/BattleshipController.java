@@ -1,24 +1,30 @@
 package battleship.controller;
 
-import battleship.application.Main;
 import battleship.model.game.AttackReport;
-import battleship.model.game.FiringMode;
 import battleship.model.game.Game;
 import battleship.model.game.GameMode;
-import battleship.model.game.ocean.Point;
 import battleship.model.game.user.User;
 import battleship.view.BattleshipView;
 
+import java.io.InputStream;
 import java.util.*;
 
 public class BattleshipController {
     private final User currentUser;
     private BattleshipView view;
-    private final Scanner scanner;
+    private final CommandReader reader;
+    private final Command command = new Command();
 
     public BattleshipController() {
+        this(System.in);
+    }
+
+    /**
+     * @param in input stream of the user commands
+     */
+    public BattleshipController(InputStream in) {
         currentUser = new User();
-        scanner = new Scanner(System.in);
+        reader = new CommandReader(in);
     }
 
     public BattleshipView getView() {
@@ -41,10 +47,7 @@ public class BattleshipController {
         }
         view = new BattleshipView(horizontal, vertical);
 
-        int[] counters = null;
-        while (counters == null) {
-            counters = getShipsCounters();
-        }
+        int[] counters = getShipsCounters();
 
         boolean isSucceed = createNewGame(view.getHorizontalSize(), view.getVerticalSize(), counters);
         if (isSucceed) {
@@ -99,26 +102,11 @@ public class BattleshipController {
     private int[] getShipsCounters() {
         int[] counters = new int[5];
         String[] typeOfShips = {"Carrier", "Battleship", "Cruiser", "Destroyer", "Submarine"};
-        try {
-            for (int i = 0; i < counters.length; i++) {
-                System.out.print("Enter number of " + typeOfShips[i] + "s:");
-                while (scanner.hasNext()) {
-                    if (scanner.hasNextInt()) {
-                        counters[i] = scanner.nextInt();
-                        if (counters[i] >= 0)
-                            break;
-                    }
-                    System.out.println("Enter integer number no less than 0: ");
-                }
+        for (int i = 0; i < counters.length; i++) {
+            System.out.print("Enter number of " + typeOfShips[i] + "s:");
+            while ((counters[i] = reader.nextInt()) < 0) {
+                System.out.println("Enter integer number no less than 0: ");
             }
-        } catch (InputMismatchException ex) {
-            System.out.println("Your value was so big");
-            return null;
-        } catch (Exception ex) {
-            System.out.println("FATAL ERROR:");
-            System.out.println(ex.getMessage());
-            System.out.println(Arrays.toString(ex.getStackTrace()));
-            return null;
         }
         return counters;
     }
@@ -134,7 +122,9 @@ public class BattleshipController {
 
     private boolean createNewGame(int horizontal, int vertical, int[] counters) {
         try {
-            Game currentGame = new Game(horizontal, vertical);
+            // -Dbattleship.seed=<seed> repeats the layout
+            Long seed = Long.getLong("battleship.seed");
+            Game currentGame = seed == null ? new Game(horizontal, vertical) : new Game(horizontal, vertical, seed);
             currentGame.placeShipsOnOcean(counters);
 
             currentGame.addListener(currentUser);
@@ -170,15 +160,10 @@ public class BattleshipController {
         boolean inputValid = false;
         while (!inputValid) {
             System.out.print(helpString);
-            String input = scanner.next();
-            try {
-                result = Integer.parseInt(input);
-                if (result >= minBound && result <= maxBound) {
-                    inputValid = true;
-                } else {
-                    System.out.printf("Enter integer number from %d to %d%n", minBound, maxBound);
-                }
-            } catch (NumberFormatException e) {
+            result = reader.nextInt();
+            if (result >= minBound && result <= maxBound) {
+                inputValid = true;
+            } else {
                 System.out.printf("Enter integer number from %d to %d%n", minBound, maxBound);
             }
         }
@@ -201,18 +186,19 @@ public class BattleshipController {
      */
     public void executeCommands() {
         try {
-            scanner.nextLine();
+            // rest of the line with the last answer
+            reader.readLine();
             while (true) {
                 System.out.println("Enter command (coordinates to shot or \"exit\"/ \"help\"):");
-                String inputCommand = scanner.nextLine();
-                if (inputCommand.contains("exit")) return;
-                if (inputCommand.contains("help")) {
+                if (!reader.readLine()) throw new NoSuchElementException("No line found");
+                reader.parseLine(command);
+                if (command.getType() == Command.Type.EXIT) return;
+                if (command.getType() == Command.Type.HELP) {
                     view.printHelp();
-                }
-
-                String[] atoms = inputCommand.split("\\s+");
-                if (correctInput(atoms)) {
-                    if (executeCurrentCommand(atoms) <= 0) {
+                } else if (command.getType() == Command.Type.INVALID) {
+                    System.out.println("Incorrect command format. Enter \"help\" to see details");
+                } else if (command.getType() == Command.Type.SHOT) {
+                    if (executeCurrentCommand(command) <= 0) {
                         System.out.println("  YOU ARE WIN THE GAME!!!");
                         System.out.println("""
                                 ＜￣｀ヽ、　　　　　　　／ ￣ ＞
@@ -234,21 +220,11 @@ public class BattleshipController {
         }
     }
 
-    private int executeCurrentCommand(String[] atoms) {
+    private int executeCurrentCommand(Command command) {
         try {
-            int[] parameters;
-            FiringMode mode;
-            if (atoms.length == 3) {
-                parameters = Main.parse(Arrays.copyOfRange(atoms, 1, 3));
-                mode = FiringMode.TORPEDO_FIRING_MODE;
-            } else {
-                // length == 2
-                parameters = Main.parse(Arrays.copyOfRange(atoms, 0, 2));
-                mode = FiringMode.GENERAL_FIRING_MODE;
-            }
-            var point = new Point(parameters[0], parameters[1]);
+            var point = currentUser.getCurrentSession().getPoint(command.getX(), command.getY());
 
-            AttackReport report = currentUser.hitOnPlace(point, mode);
+            AttackReport report = currentUser.hitOnPlace(point, command.getMode());
             String info = view.updateOcean(report);
 
             // Recovery ship mode
@@ -262,9 +238,6 @@ public class BattleshipController {
             view.printOcean("\".\" - miss  \"*\" - hit  \"x\" - sunk\n" + info);
             return report.getFleetHealthRemaining();
 
-        } catch (NumberFormatException ex) {
-            System.out.println("Incorrect command format. Enter \"help\" to see details");
-            return 1;
         } catch (IllegalArgumentException ex) {
             System.out.println(ex.getMessage());
             return 1;
@@ -275,24 +248,4 @@ public class BattleshipController {
             return 0;
         }
     }
-
-    private boolean correctInput(String[] atoms) {
-        if (atoms.length < 2 || atoms.length > 3) return false;
-        if (atoms.length == 3) {
-            if (!Objects.equals(atoms[0], "T") && !Objects.equals(atoms[0], "t"))
-                return false;
-            try {
-                Main.parse(Arrays.copyOfRange(atoms, 1, 2));
-            } catch (NumberFormatException ex) {
-                return false;
-            }
-        } else {
-            try {
-                Main.parse(Arrays.copyOfRange(atoms, 0, 1));
-            } catch (NumberFormatException ex) {
-                return false;
-            }
-        }
-        return true;
-    }
 }
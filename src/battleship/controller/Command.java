@@ -0,0 +1,69 @@
+package battleship.controller;
+
+import battleship.model.game.FiringMode;
+
+/**
+ * Parsed user command. One instance is reused for every command.
+ */
+public final class Command {
+    /**
+     * Type of the command.
+     */
+    public enum Type {
+        /**
+         * Line without any tokens.
+         */
+        EMPTY,
+        EXIT,
+        HELP,
+        /**
+         * Shot on (x, y) with firing mode.
+         */
+        SHOT,
+        /**
+         * Line which is not a command.
+         */
+        INVALID
+    }
+
+    private Type type = Type.EMPTY;
+    private FiringMode mode = FiringMode.GENERAL_FIRING_MODE;
+    private int x;
+    private int y;
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return firing mode of the shot
+     */
+    public FiringMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return horizontal coordinate of the shot
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return vertical coordinate of the shot
+     */
+    public int getY() {
+        return y;
+    }
+
+    void set(Type type) {
+        this.type = type;
+    }
+
+    void setShot(FiringMode mode, int x, int y) {
+        this.type = Type.SHOT;
+        this.mode = mode;
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,164 @@
+package battleship.controller;
+
+import battleship.model.game.FiringMode;
+
+/**
+ * Parser of the user commands over a byte buffer (ASCII).
+ * Recognises "exit" and "help" anywhere in the line, "x y" and "T x y" in one pass without allocations.
+ */
+public final class CommandParser {
+    /**
+     * Value returned by parseInt for the token which is not a number.
+     */
+    public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+    /**
+     * Longer numbers may overflow int.
+     */
+    private static final int MAX_DIGITS = 9;
+    private static final int MAX_TOKENS = 3;
+
+    private CommandParser() {
+    }
+
+    /**
+     * Parse the command line.
+     *
+     * @param buffer  buffer with the line
+     * @param offset  index of the first byte of the line
+     * @param length  length of the line
+     * @param command command to fill
+     */
+    public static void parse(byte[] buffer, int offset, int length, Command command) {
+        int end = offset + length;
+        if (contains(buffer, offset, end, 'e', 'x', 'i', 't')) {
+            command.set(Command.Type.EXIT);
+            return;
+        }
+        if (contains(buffer, offset, end, 'h', 'e', 'l', 'p')) {
+            command.set(Command.Type.HELP);
+            return;
+        }
+
+        int tokens = 0;
+        boolean torpedo = false;
+        int x = 0;
+        int y = 0;
+        int count = 0;
+        int i = offset;
+        while (true) {
+            while (i < end && isWhitespace(buffer[i])) i++;
+            if (i == end) break;
+            int start = i;
+            while (i < end && !isWhitespace(buffer[i])) i++;
+            if (++tokens > MAX_TOKENS) {
+                command.set(Command.Type.INVALID);
+                return;
+            }
+
+            if (tokens == 1 && i - start == 1 && (buffer[start] == 'T' || buffer[start] == 't')) {
+                torpedo = true;
+                continue;
+            }
+            int value = parseInt(buffer, start, i);
+            if (value == NOT_A_NUMBER || count == 2) {
+                command.set(Command.Type.INVALID);
+                return;
+            }
+            if (count++ == 0) {
+                x = value;
+            } else {
+                y = value;
+            }
+        }
+
+        if (tokens == 0) {
+            command.set(Command.Type.EMPTY);
+        } else if (count == 2) {
+            command.setShot(torpedo ? FiringMode.TORPEDO_FIRING_MODE : FiringMode.GENERAL_FIRING_MODE, x, y);
+        } else {
+            command.set(Command.Type.INVALID);
+        }
+    }
+
+    /**
+     * @param buffer buffer with the line
+     * @param offset index of the first byte of the line
+     * @param length length of the line
+     * @param word   word (ASCII)
+     * @return true if the first token of the line is the word
+     */
+    public static boolean startsWithWord(byte[] buffer, int offset, int length, String word) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end && isWhitespace(buffer[i])) i++;
+        if (end - i < word.length()) return false;
+        for (int j = 0; j < word.length(); j++) {
+            if (buffer[i + j] != word.charAt(j)) return false;
+        }
+        return i + word.length() == end || isWhitespace(buffer[i + word.length()]);
+    }
+
+    /**
+     * Parse all tokens of the line after the first one as integers.
+     *
+     * @param buffer buffer with the line
+     * @param offset index of the first byte of the line
+     * @param length length of the line
+     * @param values array to write the numbers
+     * @return number of values, -1 if any token isn't a number or there are more tokens than values
+     */
+    public static int parseArguments(byte[] buffer, int offset, int length, int[] values) {
+        int end = offset + length;
+        int count = -1;
+        int i = offset;
+        while (true) {
+            while (i < end && isWhitespace(buffer[i])) i++;
+            if (i == end) return Math.max(count, 0);
+            int start = i;
+            while (i < end && !isWhitespace(buffer[i])) i++;
+            // the first token is the name of the command
+            if (count++ < 0) continue;
+
+            if (count > values.length) return -1;
+            int value = parseInt(buffer, start, i);
+            if (value == NOT_A_NUMBER) return -1;
+            values[count - 1] = value;
+        }
+    }
+
+    /**
+     * Parse the decimal integer (optional sign and no more than 9 digits).
+     *
+     * @param buffer buffer with the number
+     * @param start  index of the first byte
+     * @param end    index after the last byte
+     * @return number or NOT_A_NUMBER
+     */
+    public static int parseInt(byte[] buffer, int start, int end) {
+        boolean negative = false;
+        if (start < end && (buffer[start] == '-' || buffer[start] == '+')) {
+            negative = buffer[start] == '-';
+            start++;
+        }
+        if (start == end || end - start > MAX_DIGITS) return NOT_A_NUMBER;
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) return NOT_A_NUMBER;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    static boolean isWhitespace(byte symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\r' || symbol == '\n' || symbol == '\f';
+    }
+
+    private static boolean contains(byte[] buffer, int start, int end, char a, char b, char c, char d) {
+        for (int i = start; i + 3 < end; i++) {
+            if (buffer[i] == a && buffer[i + 1] == b && buffer[i + 2] == c && buffer[i + 3] == d) return true;
+        }
+        return false;
+    }
+}
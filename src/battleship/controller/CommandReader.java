@@ -0,0 +1,117 @@
+package battleship.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads lines and tokens of the input stream into the reused byte buffer.
+ * Unlike Scanner it doesn't create Strings, so piped command streams are read at full speed.
+ */
+public final class CommandReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private byte[] line = new byte[128];
+    private int length;
+
+    /**
+     * @param in input stream
+     */
+    public CommandReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Read the next line (without line separator).
+     *
+     * @return false if the end of the stream has been reached
+     * @throws UncheckedIOException if the stream cannot be read
+     */
+    public boolean readLine() throws UncheckedIOException {
+        length = 0;
+        boolean read = false;
+        while (fill()) {
+            read = true;
+            byte symbol = buffer[position++];
+            if (symbol == '\n') break;
+            append(symbol);
+        }
+        if (length > 0 && line[length - 1] == '\r') --length;
+        return read;
+    }
+
+    /**
+     * Read the next token (sequence of not whitespace symbols), line separators are skipped.
+     *
+     * @return false if the end of the stream has been reached
+     * @throws UncheckedIOException if the stream cannot be read
+     */
+    public boolean nextToken() throws UncheckedIOException {
+        length = 0;
+        while (fill() && CommandParser.isWhitespace(buffer[position])) {
+            position++;
+        }
+        while (fill() && !CommandParser.isWhitespace(buffer[position])) {
+            append(buffer[position++]);
+        }
+        return length > 0;
+    }
+
+    /**
+     * Read the next token as integer.
+     *
+     * @return number or {@link CommandParser#NOT_A_NUMBER} if the token isn't a number
+     * @throws NoSuchElementException if the end of the stream has been reached
+     */
+    public int nextInt() throws NoSuchElementException {
+        if (!nextToken()) throw new NoSuchElementException("No more input");
+        return CommandParser.parseInt(line, 0, length);
+    }
+
+    /**
+     * Parse the last read line.
+     *
+     * @param command command to fill
+     */
+    public void parseLine(Command command) {
+        CommandParser.parse(line, 0, length, command);
+    }
+
+    /**
+     * @return buffer with the last read line or token (starts at index 0)
+     */
+    public byte[] getLine() {
+        return line;
+    }
+
+    /**
+     * @return length of the last read line or token
+     */
+    public int getLength() {
+        return length;
+    }
+
+    private boolean fill() {
+        if (position < limit) return true;
+        try {
+            int read = in.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void append(byte symbol) {
+        if (length == line.length) line = Arrays.copyOf(line, length * 2);
+        line[length++] = symbol;
+    }
+}
@@ -0,0 +1,89 @@
+package battleship.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative values with power of two buckets:
+ * bucket i contains values from 2^(i-1) to 2^i - 1 (bucket 0 contains 0).
+ * Recording is two additions to striped counters, so threads don't contend on one cache line.
+ */
+public final class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value value to record (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * @return current values (not atomic: values recorded at the same time may be counted partially)
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(count, sum.sum(), max.get(), counts);
+    }
+
+    /**
+     * @param count   number of recorded values
+     * @param sum     sum of recorded values
+     * @param max     maximum recorded value
+     * @param buckets number of values in every bucket
+     */
+    public record Snapshot(long count, long sum, long max, long[] buckets) {
+        /**
+         * @return mean value (0 if there are no values)
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param quantile quantile (from 0 to 1)
+         * @return upper bound of the bucket which contains the quantile (no more than maximum)
+         */
+        public long percentile(double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=%d mean=%.0f p50=%d p99=%d max=%d".formatted(count, mean(), percentile(0.5),
+                    percentile(0.99), max);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package battleship.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the hot paths: fleet placement, random ship position, shots,
+ * recovery rollbacks and rendering of the board. Every record is also committed as JDK Flight Recorder event
+ * (category "Battleship") when the recording has the event enabled.
+ * <p>
+ * Metrics are turned on by "-Dbattleship.metrics=true". The flag is a static final constant,
+ * so with metrics turned off the JIT removes the instrumentation (callers check {@link #ENABLED}
+ * before taking the time).
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("battleship.metrics");
+
+    private static final LongAdder PLACEMENTS = new LongAdder();
+    private static final LongAdder PLACEMENT_ATTEMPTS = new LongAdder();
+    private static final LongAdder PLACEMENT_FAILURES = new LongAdder();
+    private static final LongAdder POSITIONS = new LongAdder();
+    private static final LongAdder POSITION_ATTEMPTS = new LongAdder();
+    private static final LongAdder POSITION_FAILURES = new LongAdder();
+    private static final LongAdder SHOTS = new LongAdder();
+    private static final LongAdder SALVOS = new LongAdder();
+    private static final LongAdder ROLLBACKS = new LongAdder();
+    private static final LongAdder ROLLBACK_CELLS = new LongAdder();
+    private static final LongAdder RENDERS = new LongAdder();
+    private static final LongAdder RENDER_BYTES = new LongAdder();
+
+    private static final Histogram PLACEMENT_NANOS = new Histogram();
+    private static final Histogram SHOT_NANOS = new Histogram();
+    private static final Histogram SALVO_NANOS = new Histogram();
+    private static final Histogram RENDER_NANOS = new Histogram();
+
+    private Metrics() {
+    }
+
+    /**
+     * @return start time for the timed record (0 if metrics are turned off)
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Random placement of the fleet has been finished.
+     *
+     * @param start    start time
+     * @param ships    number of ships
+     * @param placed   true if the fleet has been placed
+     * @param attempts number of search attempts
+     * @param steps    number of search steps
+     */
+    public static void placement(long start, int ships, boolean placed, int attempts, int steps) {
+        long time = System.nanoTime() - start;
+        PLACEMENTS.increment();
+        PLACEMENT_ATTEMPTS.add(attempts);
+        if (!placed) PLACEMENT_FAILURES.increment();
+        PLACEMENT_NANOS.record(time);
+
+        PlacementEvent event = new PlacementEvent();
+        if (event.isEnabled()) {
+            event.ships = ships;
+            event.placed = placed;
+            event.attempts = attempts;
+            event.steps = steps;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Random position of one ship has been searched.
+     *
+     * @param attempts number of tried positions
+     * @param found    true if the ship has been placed
+     */
+    public static void randomPosition(int attempts, boolean found) {
+        POSITIONS.increment();
+        POSITION_ATTEMPTS.add(attempts);
+        if (!found) POSITION_FAILURES.increment();
+    }
+
+    /**
+     * Shot has been done.
+     *
+     * @param start       start time
+     * @param torpedo     true for torpedo
+     * @param result      name of the hit result
+     * @param fleetHealth fleet health after the shot
+     */
+    public static void shot(long start, boolean torpedo, String result, int fleetHealth) {
+        long time = System.nanoTime() - start;
+        SHOTS.increment();
+        SHOT_NANOS.record(time);
+
+        ShotEvent event = new ShotEvent();
+        if (event.isEnabled()) {
+            event.shots = 1;
+            event.torpedo = torpedo;
+            event.result = result;
+            event.fleetHealth = fleetHealth;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Salvo has been fired.
+     *
+     * @param start       start time
+     * @param shots       number of shots
+     * @param fleetHealth fleet health after the salvo
+     */
+    public static void salvo(long start, int shots, int fleetHealth) {
+        long time = System.nanoTime() - start;
+        SHOTS.add(shots);
+        SALVOS.increment();
+        SALVO_NANOS.record(time);
+
+        ShotEvent event = new ShotEvent();
+        if (event.isEnabled()) {
+            event.shots = shots;
+            event.result = "SALVO";
+            event.fleetHealth = fleetHealth;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Attacked ships have been recovered (ship recovery mode).
+     *
+     * @param cells       number of recovered cells
+     * @param fleetHealth fleet health after the recovery
+     */
+    public static void rollback(int cells, int fleetHealth) {
+        ROLLBACKS.increment();
+        ROLLBACK_CELLS.add(cells);
+
+        RollbackEvent event = new RollbackEvent();
+        if (event.isEnabled()) {
+            event.cells = cells;
+            event.fleetHealth = fleetHealth;
+            event.commit();
+        }
+    }
+
+    /**
+     * Board has been rendered.
+     *
+     * @param start      start time
+     * @param characters number of rendered characters
+     */
+    public static void render(long start, long characters) {
+        long time = System.nanoTime() - start;
+        RENDERS.increment();
+        RENDER_BYTES.add(characters);
+        RENDER_NANOS.record(time);
+
+        RenderEvent event = new RenderEvent();
+        if (event.isEnabled()) {
+            event.characters = characters;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return current values of all counters and histograms (times in nanoseconds)
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("placements", PLACEMENTS.sum());
+        counters.put("placementAttempts", PLACEMENT_ATTEMPTS.sum());
+        counters.put("placementFailures", PLACEMENT_FAILURES.sum());
+        counters.put("positions", POSITIONS.sum());
+        counters.put("positionAttempts", POSITION_ATTEMPTS.sum());
+        counters.put("positionFailures", POSITION_FAILURES.sum());
+        counters.put("shots", SHOTS.sum());
+        counters.put("salvos", SALVOS.sum());
+        counters.put("rollbacks", ROLLBACKS.sum());
+        counters.put("rollbackCells", ROLLBACK_CELLS.sum());
+        counters.put("renders", RENDERS.sum());
+        counters.put("renderBytes", RENDER_BYTES.sum());
+
+        Map<String, Histogram.Snapshot> histograms = new LinkedHashMap<>();
+        histograms.put("placementNanos", PLACEMENT_NANOS.snapshot());
+        histograms.put("shotNanos", SHOT_NANOS.snapshot());
+        histograms.put("salvoNanos", SALVO_NANOS.snapshot());
+        histograms.put("renderNanos", RENDER_NANOS.snapshot());
+        return new MetricsSnapshot(ENABLED, counters, histograms);
+    }
+
+    /**
+     * Reset all counters and histograms.
+     */
+    public static void reset() {
+        for (LongAdder counter : new LongAdder[]{PLACEMENTS, PLACEMENT_ATTEMPTS, PLACEMENT_FAILURES, POSITIONS,
+                POSITION_ATTEMPTS, POSITION_FAILURES, SHOTS, SALVOS, ROLLBACKS, ROLLBACK_CELLS, RENDERS, RENDER_BYTES}) {
+            counter.reset();
+        }
+        for (Histogram histogram : new Histogram[]{PLACEMENT_NANOS, SHOT_NANOS, SALVO_NANOS, RENDER_NANOS}) {
+            histogram.reset();
+        }
+    }
+}
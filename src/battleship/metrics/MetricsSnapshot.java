@@ -0,0 +1,24 @@
+package battleship.metrics;
+
+import java.util.Map;
+
+/**
+ * Values of the metrics at one moment.
+ *
+ * @param enabled    true if metrics are turned on
+ * @param counters   counters by name
+ * @param histograms histograms by name (times in nanoseconds)
+ */
+public record MetricsSnapshot(boolean enabled, Map<String, Long> counters, Map<String, Histogram.Snapshot> histograms) {
+    /**
+     * @return one line per counter and histogram
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (!enabled) builder.append("metrics are turned off (-Dbattleship.metrics=true)\n");
+        counters.forEach((name, value) -> builder.append(name).append(": ").append(value).append('\n'));
+        histograms.forEach((name, value) -> builder.append(name).append(": ").append(value).append('\n'));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("battleship.Placement")
+@Label("Fleet Placement")
+@Category("Battleship")
+@Description("Random placement of the fleet on the ocean")
+final class PlacementEvent extends jdk.jfr.Event {
+    @Label("Ships")
+    int ships;
+
+    @Label("Placed")
+    boolean placed;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Search Steps")
+    int steps;
+
+    @Label("Placement Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
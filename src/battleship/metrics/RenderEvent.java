@@ -0,0 +1,20 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("battleship.Render")
+@Label("Board Render")
+@Category("Battleship")
+final class RenderEvent extends jdk.jfr.Event {
+    @Label("Characters")
+    @DataAmount(DataAmount.BYTES)
+    long characters;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
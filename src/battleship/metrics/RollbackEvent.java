@@ -0,0 +1,18 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("battleship.Rollback")
+@Label("Recovery Rollback")
+@Category("Battleship")
+@Description("Attacked ships recovered in ship recovery mode")
+final class RollbackEvent extends jdk.jfr.Event {
+    @Label("Recovered Cells")
+    int cells;
+
+    @Label("Fleet Health")
+    int fleetHealth;
+}
@@ -0,0 +1,27 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("battleship.Shot")
+@Label("Shot")
+@Category("Battleship")
+final class ShotEvent extends jdk.jfr.Event {
+    @Label("Shots")
+    int shots;
+
+    @Label("Torpedo")
+    boolean torpedo;
+
+    @Label("Result")
+    String result;
+
+    @Label("Fleet Health")
+    int fleetHealth;
+
+    @Label("Shot Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
@@ -1,29 +1,68 @@
 package battleship.model.game;
 
+import battleship.metrics.Metrics;
+import battleship.model.game.ocean.Feasibility;
+import battleship.model.game.ocean.LayoutCounter;
+import battleship.model.game.ocean.LayoutDatabase;
 import battleship.model.game.ocean.Ocean;
 import battleship.model.game.ocean.Point;
 import battleship.model.game.user.StatusChangedListener;
 import battleship.model.ships.Ship;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class Game {
-    private Ocean ocean;
+    private final Ocean ocean;
+    private final long seed;
+    /**
+     * Source of randomness of the layout, determined by the seed.
+     */
+    private final SplittableRandom random;
     private int fleetHealth;
     private int availableTorpedo;
     private EnumSet<GameMode> gameMode;
+    /**
+     * Shots on the ocean in order: cell index * 2 + 1 for torpedo.
+     */
+    private int[] shotHistory = new int[16];
+    private int shotCount;
+    private GameJournal journal;
 
     /**
-     * Create new game.
+     * Create new game with the random seed.
      *
      * @param sizeHorizontal horizontal size of the ocean
      * @param sizeVertical   vertical size of the ocean
      * @throws IllegalArgumentException cannot create ocean with this parameters
      */
     public Game(int sizeHorizontal, int sizeVertical) throws IllegalArgumentException {
+        this(sizeHorizontal, sizeVertical, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create new game. The same seed and configuration give the same layout of {@link #placeShipsOnOcean(int[])}.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param seed           seed of the layout
+     * @throws IllegalArgumentException cannot create ocean with this parameters
+     */
+    public Game(int sizeHorizontal, int sizeVertical, long seed) throws IllegalArgumentException {
         ocean = new Ocean(sizeHorizontal, sizeVertical);
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return seed of the layout
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
@@ -64,25 +103,144 @@ public class Game {
     }
 
     /**
-     * Placing ship on the Ocean.
+     * Placing ship on the Ocean by the seed of the game.
      *
      * @param counters array of numbers, where these numbers are listed in the order
      *                 which corresponds to ship types sizes
      * @throws RuntimeException if ocean size is too small for the input specified fleet
      */
     public void placeShipsOnOcean(int[] counters) throws RuntimeException {
-        List<Ship> ships = Ship.convertInputIntegersToShips(counters);
-        fleetHealth = ships.stream().mapToInt(Ship::getLength).sum();
+        placeShipsOnOcean(counters, random);
+    }
 
-        // Fleet size bigger than ocean size
-        if (ocean.getSizeVertical() * ocean.getSizeHorizontal() <= fleetHealth)
+    /**
+     * Placing ship on the Ocean.
+     *
+     * @param counters array of numbers, where these numbers are listed in the order
+     *                 which corresponds to ship types sizes
+     * @param random   source of randomness for the layout
+     * @throws RuntimeException if ocean size is too small for the input specified fleet
+     */
+    public void placeShipsOnOcean(int[] counters, RandomGenerator random) throws RuntimeException {
+        List<Ship> ships = prepareFleet(counters);
+        if (Ocean.randomPlace(ships, ocean, random) == null)
             throw new RuntimeException("Cannot place ships on this ocean");
-        this.ocean = Ocean.randomPlace(ships, ocean);
+    }
 
-        if (ocean == null)
+    /**
+     * Placing ship on the Ocean one by one, every ship on the random position among the positions
+     * which are still legal (faster than the search, but the layouts are not uniform).
+     *
+     * @param counters array of numbers, where these numbers are listed in the order
+     *                 which corresponds to ship types sizes
+     * @param random   source of randomness for the layout
+     * @throws RuntimeException if ocean size is too small for the input specified fleet
+     */
+    public void placeShipsOnOceanSequentially(int[] counters, RandomGenerator random) throws RuntimeException {
+        List<Ship> ships = prepareFleet(counters);
+        if (Ocean.sequentialPlace(ships, ocean, random) == null)
             throw new RuntimeException("Cannot place ships on this ocean");
     }
 
+    /**
+     * Placing ship on the Ocean, every legal layout has the same probability if the uniform sampler
+     * can draw it (see {@link Ocean#uniformPlace}), otherwise ships are placed one by one.
+     *
+     * @param counters array of numbers, where these numbers are listed in the order
+     *                 which corresponds to ship types sizes
+     * @param random   source of randomness for the layout
+     * @return true if the layout is uniform, false if the placement has fallen back to the non-uniform one
+     * @throws RuntimeException if ocean size is too small for the input specified fleet
+     */
+    public boolean placeShipsOnOceanUniformly(int[] counters, RandomGenerator random) throws RuntimeException {
+        List<Ship> ships = prepareFleet(counters);
+        if (Ocean.uniformPlace(ships, ocean, random) == null)
+            throw new RuntimeException("Cannot place ships on this ocean");
+        return ocean.isUniformLayout();
+    }
+
+    /**
+     * Placing ship on the Ocean by several independent searches in parallel, the first found layout wins
+     * (lower latency on big dense oceans, but the layout isn't reproduced by the same seed).
+     *
+     * @param counters array of numbers, where these numbers are listed in the order
+     *                 which corresponds to ship types sizes
+     * @param random   source of randomness for the searches
+     * @param searches number of independent searches
+     * @throws RuntimeException if ocean size is too small for the input specified fleet
+     */
+    public void placeShipsOnOceanInParallel(int[] counters, SplittableRandom random, int searches) throws RuntimeException {
+        List<Ship> ships = prepareFleet(counters);
+        if (Ocean.parallelPlace(ships, ocean, random, searches) == null)
+            throw new RuntimeException("Cannot place ships on this ocean");
+    }
+
+    /**
+     * Placing ship on the Ocean by the random layout from the database.
+     * If the database has no layouts of this configuration, ships are placed by the search.
+     *
+     * @param counters array of numbers, where these numbers are listed in the order
+     *                 which corresponds to ship types sizes
+     * @param random   source of randomness for the layout
+     * @param database database of layouts (null - no database)
+     * @throws RuntimeException if ocean size is too small for the input specified fleet
+     */
+    public void placeShipsOnOcean(int[] counters, RandomGenerator random, LayoutDatabase database) throws RuntimeException {
+        int health = fleetHealth(counters);
+        if (database == null || !database.place(ocean, counters, random)) {
+            placeShipsOnOcean(counters, random);
+            return;
+        }
+        fleetHealth = health;
+    }
+
+    /**
+     * Check that the fleet can be placed on the ocean before any ship is created, then set the fleet health.
+     *
+     * @param counters numbers of ships of every type (from Carrier to Submarine)
+     * @return ships of the fleet
+     * @throws IllegalArgumentException if the counters don't list 5 types of ships
+     * @throws RuntimeException         if there is no legal layout of the fleet on the ocean
+     */
+    private List<Ship> prepareFleet(int[] counters) throws RuntimeException {
+        int health = fleetHealth(counters);
+        if (LayoutCounter.checkFeasibility(ocean.getSizeHorizontal(), ocean.getSizeVertical(), counters)
+                == Feasibility.INFEASIBLE)
+            throw new RuntimeException("Cannot place ships on this ocean");
+        fleetHealth = health;
+        return Ship.convertInputIntegersToShips(counters);
+    }
+
+    /**
+     * @param counters numbers of ships of every type (from Carrier to Submarine)
+     * @return total health of the fleet
+     * @throws IllegalArgumentException if the counters don't list 5 types of ships
+     */
+    private static int fleetHealth(int[] counters) throws IllegalArgumentException {
+        if (counters.length != 5)
+            throw new IllegalArgumentException("Number of ships of 5 types required");
+        int health = 0;
+        for (int i = 0; i < counters.length; i++) {
+            // counters are listed from Carrier (length 5) to Submarine (length 1)
+            health += counters[i] * (counters.length - i);
+        }
+        return health;
+    }
+
+    /**
+     * @return total health of the fleet remaining.
+     */
+    public int getFleetHealth() {
+        return fleetHealth;
+    }
+
+    /**
+     * @return number of available torpedoes.
+     */
+    public int getAvailableTorpedo() {
+        return availableTorpedo;
+    }
+
     private final List<StatusChangedListener> listeners = new ArrayList<>();
 
     /**
@@ -94,6 +252,15 @@ public class Game {
         listeners.add(user);
     }
 
+    /**
+     * Set the journal which receives every shot and recovery of the game.
+     *
+     * @param journal journal (null - no journal)
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
     /**
      * Notify everybody in listeners list.
      *
@@ -113,36 +280,205 @@ public class Game {
      * @throws IllegalArgumentException if firing mode = torpedo and there is no available torpedo
      */
     public AttackReport hitOnPlace(Point point, FiringMode firingMode) throws IllegalArgumentException {
+        long start = Metrics.start();
+        int shotResult = shoot(point.x(), point.y(), firingMode);
+        AttackReport report = getAttackReport(point, shotResult);
+
+        if (gameMode.contains(GameMode.SHIP_RECOVERY_MODE_ENABLE)) {
+            // notify that status has been changed
+            changeStatus(report);
+        }
+        if (Metrics.ENABLED) recordShot(start, firingMode, shotResult);
+        return report;
+    }
+
+    /**
+     * Attack on specified point on ocean without allocation
+     * (report for listeners is created only in ship recovery mode).
+     *
+     * @param x          horizontal coordinate
+     * @param y          vertical coordinate
+     * @param firingMode general / torpedo
+     * @return packed shot result (see {@link ShotResult})
+     * @throws IllegalArgumentException if firing mode = torpedo and there is no available torpedo
+     */
+    public int hitOnPlace(int x, int y, FiringMode firingMode) throws IllegalArgumentException {
+        long start = Metrics.start();
+        int shotResult = shoot(x, y, firingMode);
+
+        if (gameMode.contains(GameMode.SHIP_RECOVERY_MODE_ENABLE)) {
+            // notify that status has been changed
+            changeStatus(getAttackReport(getPoint(x, y), shotResult));
+        }
+        if (Metrics.ENABLED) recordShot(start, firingMode, shotResult);
+        return shotResult;
+    }
+
+    private void recordShot(long start, FiringMode firingMode, int shotResult) {
+        Metrics.shot(start, firingMode == FiringMode.TORPEDO_FIRING_MODE, ShotResult.getResult(shotResult).name(),
+                fleetHealth);
+    }
+
+    private int shoot(int x, int y, FiringMode firingMode) throws IllegalArgumentException {
         if (firingMode == FiringMode.TORPEDO_FIRING_MODE && availableTorpedo <= 0) {
+            if (journal != null) journal.onRejectedShot(x, y, firingMode);
             throw new IllegalArgumentException("No torpedoes available");
         }
         if (firingMode == FiringMode.TORPEDO_FIRING_MODE) --availableTorpedo;
+        if (x >= 0 && x < ocean.getSizeHorizontal() && y >= 0 && y < ocean.getSizeVertical())
+            recordShot(y * ocean.getSizeHorizontal() + x, firingMode);
+
+        int shotResult = shoot(ocean.getShipId(x, y), firingMode, fleetHealth);
+        fleetHealth = ShotResult.getFleetHealthRemaining(shotResult);
+        if (journal != null) journal.onShot(x, y, firingMode, shotResult);
+        return shotResult;
+    }
+
+    /**
+     * @param shipId     id of the ship to attack (0 if missed)
+     * @param firingMode general / torpedo
+     * @param health     fleet health before the shot
+     * @return packed shot result
+     */
+    private int shoot(int shipId, FiringMode firingMode, int health) {
+        if (shipId == 0) {
+            return ShotResult.pack(AttackReport.getMissedResult(), 0, health);
+        }
 
-        AttackReport report;
-        if (!ocean.isEmpty(point)) {
-            Ship attackingShip = ocean.getShipByPosition(point);
-            HealthReport healthReport = attackingShip.hitTheShip(firingMode);
-
-            // Recalculating fleet health and torpedo available.
-            fleetHealth -= healthReport.scoreByHit();
-            AttackReport.HitResult result = AttackReport.getResult(healthReport.healthRemaining());
-
-            // update if was sunk
-            if (result == AttackReport.HitResult.SUNK) {
-                var pointsOccupiedByShip = ocean.getPointsOccupiedByShip(attackingShip);
-                report = new AttackReport(attackingShip, result, point, fleetHealth, pointsOccupiedByShip);
-            } else {
-                report = new AttackReport(attackingShip, result, point, fleetHealth, null);
+        Ship attackingShip = ocean.getShipById(shipId);
+        // Recalculating fleet health
+        health -= attackingShip.hit(firingMode);
+        return ShotResult.pack(AttackReport.getResult(attackingShip.getHealth()), shipId, health);
+    }
+
+    /**
+     * Attack on several cells in order (salvo).
+     * Fleet health is updated once and listeners are notified once per salvo (only for ship recovery mode).
+     *
+     * @param cells       indexes of cells to attack (y * horizontal size + x)
+     * @param firingModes firing mode of every shot
+     * @param results     array to write packed shot results (see {@link ShotResult})
+     * @param count       number of shots
+     * @throws IllegalArgumentException if there are more shots than cells of the ocean, arrays are shorter than
+     *                                  the number of shots, any firing mode is missing, any cell is out of the ocean
+     *                                  or there are not enough torpedoes (no shot is done in this case)
+     */
+    public void hitOnPlaces(int[] cells, FiringMode[] firingModes, int[] results, int count) throws IllegalArgumentException {
+        if (count < 0 || count > ocean.getPointPool().size())
+            throw new IllegalArgumentException("Salvo cannot have %d shots".formatted(count));
+        if (cells.length < count || firingModes.length < count || results.length < count)
+            throw new IllegalArgumentException("Arrays of the salvo are shorter than the number of shots: " + count);
+        int torpedoes = 0;
+        for (int i = 0; i < count; i++) {
+            if (cells[i] < 0 || cells[i] >= ocean.getPointPool().size())
+                throw new IllegalArgumentException("Attacking position was out of the ocean: " + cells[i]);
+            if (firingModes[i] == null)
+                throw new IllegalArgumentException("Firing mode of the shot is missing: " + i);
+            if (firingModes[i] == FiringMode.TORPEDO_FIRING_MODE) ++torpedoes;
+        }
+        if (torpedoes > availableTorpedo) {
+            throw new IllegalArgumentException("No torpedoes available");
+        }
+        long start = Metrics.start();
+        availableTorpedo -= torpedoes;
+        if (journal != null) journal.onSalvo(count);
+
+        int health = fleetHealth;
+        for (int i = 0; i < count; i++) {
+            recordShot(cells[i], firingModes[i]);
+            results[i] = shoot(ocean.getShipIdByCell(cells[i]), firingModes[i], health);
+            health = ShotResult.getFleetHealthRemaining(results[i]);
+            if (journal != null) {
+                int width = ocean.getSizeHorizontal();
+                journal.onShot(cells[i] % width, cells[i] / width, firingModes[i], results[i]);
             }
-        } else {
-            report = new AttackReport(null, AttackReport.getMissedResult(), point, fleetHealth, null);
         }
+        fleetHealth = health;
 
         if (gameMode.contains(GameMode.SHIP_RECOVERY_MODE_ENABLE)) {
             // notify that status has been changed
-            changeStatus(report);
+            for (StatusChangedListener user : listeners)
+                user.onSalvoStatusChanged(this, cells, results, count);
         }
-        return report;
+        if (Metrics.ENABLED) Metrics.salvo(start, count, fleetHealth);
+    }
+
+    private void recordShot(int cell, FiringMode firingMode) {
+        if (shotCount == shotHistory.length) shotHistory = Arrays.copyOf(shotHistory, shotCount * 2);
+        shotHistory[shotCount++] = cell * 2 + (firingMode == FiringMode.TORPEDO_FIRING_MODE ? 1 : 0);
+    }
+
+    /**
+     * @return number of shots on the ocean (shots out of the ocean are not counted)
+     */
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    /**
+     * @param index index of the shot (from 0 to shot count - 1)
+     * @return cell index * 2 + 1 for torpedo
+     */
+    public int getShot(int index) {
+        if (index < 0 || index >= shotCount)
+            throw new IndexOutOfBoundsException("Shot index " + index + " out of " + shotCount);
+        return shotHistory[index];
+    }
+
+    /**
+     * @return game mode (null if it hasn't been set)
+     */
+    EnumSet<GameMode> getGameMode() {
+        return gameMode;
+    }
+
+    Ocean getOcean() {
+        return ocean;
+    }
+
+    /**
+     * Restore counters of the saved game (ships must be already placed on the ocean).
+     */
+    void restoreState(EnumSet<GameMode> mode, int fleetHealth, int availableTorpedo, int[] shots, int shotCount) {
+        gameMode = mode;
+        this.fleetHealth = fleetHealth;
+        this.availableTorpedo = availableTorpedo;
+        shotHistory = Arrays.copyOf(shots, Math.max(shotCount, 16));
+        this.shotCount = shotCount;
+    }
+
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return shared point of the ocean (new point if it is out of the ocean)
+     */
+    public Point getPoint(int x, int y) {
+        return ocean.getPointPool().get(x, y);
+    }
+
+    /**
+     * @param cell cell index (y * horizontal size + x)
+     * @return shared point of the ocean
+     */
+    public Point getPoint(int cell) {
+        return ocean.getPointPool().get(cell);
+    }
+
+    /**
+     * Convert packed shot result to attack report.
+     *
+     * @param point      attacked point
+     * @param shotResult packed shot result
+     * @return attack report
+     */
+    public AttackReport getAttackReport(Point point, int shotResult) {
+        AttackReport.HitResult result = ShotResult.getResult(shotResult);
+        int shipId = ShotResult.getShipId(shotResult);
+        // update if was sunk
+        List<Point> pointsOccupiedByShip = result == AttackReport.HitResult.SUNK ?
+                ocean.getPointsOccupiedByShip(shipId) : null;
+        return new AttackReport(ocean.getShipById(shipId), result, point,
+                ShotResult.getFleetHealthRemaining(shotResult), pointsOccupiedByShip);
     }
 
     /**
@@ -161,11 +497,13 @@ public class Game {
 
     /**
      * Update list of points to recover (only for ship recovery mode).
+     * Fleet health must be already restored, the recovery is passed to the journal.
      *
      * @param points list of points
      */
     public void updatePointsToRecover(List<Point> points) {
         pointsToRecover = points;
+        if (journal != null && points != null) journal.onRollback(fleetHealth, points);
     }
 
     /**
@@ -0,0 +1,45 @@
+package battleship.model.game;
+
+import battleship.model.game.ocean.Point;
+
+import java.util.List;
+
+/**
+ * Receiver of the game events in order they happen: shots, rejected shots, salvos and recovery rollbacks.
+ * Together with the configuration and the seed of the layout these events define the game completely.
+ */
+public interface GameJournal {
+    /**
+     * Shot has been done.
+     *
+     * @param x          horizontal coordinate
+     * @param y          vertical coordinate
+     * @param firingMode general / torpedo
+     * @param shotResult packed shot result (see {@link ShotResult})
+     */
+    void onShot(int x, int y, FiringMode firingMode, int shotResult);
+
+    /**
+     * Shot has been rejected (there is no available torpedo).
+     *
+     * @param x          horizontal coordinate
+     * @param y          vertical coordinate
+     * @param firingMode general / torpedo
+     */
+    void onRejectedShot(int x, int y, FiringMode firingMode);
+
+    /**
+     * Salvo has been fired, next count shots belong to it.
+     *
+     * @param count number of shots in salvo
+     */
+    void onSalvo(int count);
+
+    /**
+     * (only for ship recovery mode) Attacked cells have been recovered.
+     *
+     * @param fleetHealth fleet health after the recovery
+     * @param points      recovered points
+     */
+    void onRollback(int fleetHealth, List<Point> points);
+}
@@ -0,0 +1,272 @@
+package battleship.model.game;
+
+import battleship.model.game.ocean.Ocean;
+import battleship.model.game.ocean.Point;
+import battleship.model.game.user.User;
+import battleship.model.game.user.UserState;
+import battleship.model.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the game with its user.
+ * <p>
+ * Format (numbers are unsigned varints unless noted):
+ * magic "BS" and version (3 bytes); horizontal and vertical size (1 byte each);
+ * flags (1 byte: game mode options, "mode is not set", "has user"); available torpedoes; fleet health;
+ * number of ships and for every ship in order of ids: ((cell * 2 + vertical) * 8 + length) * 8 + health;
+ * number of shots and every shot: cell * 2 + 1 for torpedo;
+ * if there is a user: number of actions, state, number of the last reports and for every report:
+ * cell * 4 + result, ship id, fleet health remaining.
+ * Standard 10x10 game takes about 30 bytes plus 1 - 2 bytes per shot.
+ */
+public final class GameSnapshot {
+    private static final byte MAGIC_FIRST = 'B';
+    private static final byte MAGIC_SECOND = 'S';
+    private static final int VERSION = 1;
+
+    private static final int FLAG_NO_OPTIONS = 1;
+    private static final int FLAG_TORPEDO = 1 << 1;
+    private static final int FLAG_RECOVERY = 1 << 2;
+    private static final int FLAG_MODE_NOT_SET = 1 << 3;
+    private static final int FLAG_USER = 1 << 4;
+
+    private static final UserState[] USER_STATES = UserState.values();
+    private static final AttackReport.HitResult[] RESULTS = AttackReport.HitResult.values();
+
+    private final Game game;
+    private final User user;
+
+    private GameSnapshot(Game game, User user) {
+        this.game = game;
+        this.user = user;
+    }
+
+    /**
+     * @return restored game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return restored user (subscribed to the game), null if the snapshot has no user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Encode the game and its user.
+     *
+     * @param game game to encode
+     * @param user user of the game (may be null)
+     * @return snapshot bytes
+     */
+    public static byte[] encode(Game game, User user) {
+        Ocean ocean = game.getOcean();
+        int width = ocean.getSizeHorizontal();
+        Writer out = new Writer(32 + ocean.getShipsCount() * 3 + game.getShotCount() * 2);
+        out.writeByte(MAGIC_FIRST);
+        out.writeByte(MAGIC_SECOND);
+        out.writeByte(VERSION);
+        out.writeByte(width);
+        out.writeByte(ocean.getSizeVertical());
+
+        EnumSet<GameMode> mode = game.getGameMode();
+        int flags = user != null ? FLAG_USER : 0;
+        if (mode == null) {
+            flags |= FLAG_MODE_NOT_SET;
+        } else {
+            if (mode.contains(GameMode.NO_OPTIONS)) flags |= FLAG_NO_OPTIONS;
+            if (mode.contains(GameMode.TORPEDO_MODE_ENABLE)) flags |= FLAG_TORPEDO;
+            if (mode.contains(GameMode.SHIP_RECOVERY_MODE_ENABLE)) flags |= FLAG_RECOVERY;
+        }
+        out.writeByte(flags);
+        out.writeVarint(game.getAvailableTorpedo());
+        out.writeVarint(game.getFleetHealth());
+
+        out.writeVarint(ocean.getShipsCount());
+        for (int id = 1; id <= ocean.getShipsCount(); id++) {
+            Ship ship = ocean.getShipById(id);
+            List<Point> cells = ocean.getPointsOccupiedByShip(id);
+            Point start = cells.get(0);
+            int vertical = cells.size() > 1 && cells.get(1).x() == start.x() ? 1 : 0;
+            out.writeVarint((((start.y() * width + start.x()) * 2 + vertical) * 8 + ship.getLength()) * 8
+                    + ship.getHealth());
+        }
+
+        out.writeVarint(game.getShotCount());
+        for (int i = 0; i < game.getShotCount(); i++) {
+            out.writeVarint(game.getShot(i));
+        }
+
+        if (user != null) {
+            out.writeVarint(user.getActionsCounter());
+            out.writeByte(user.getActualState().ordinal());
+            List<AttackReport> reports = user.getLastReports();
+            out.writeVarint(reports.size());
+            for (AttackReport report : reports) {
+                Point position = report.getPosition();
+                out.writeVarint((position.y() * width + position.x()) * 4 + report.getResult().ordinal());
+                out.writeVarint(report.getShip() == null ? 0 : ocean.getShipId(position));
+                out.writeVarint(report.getFleetHealthRemaining());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the game and its user.
+     *
+     * @param bytes snapshot bytes
+     * @return snapshot with restored game and user
+     * @throws IllegalArgumentException if bytes aren't a correct snapshot
+     */
+    public static GameSnapshot decode(byte[] bytes) throws IllegalArgumentException {
+        Reader in = new Reader(bytes);
+        if (in.readByte() != MAGIC_FIRST || in.readByte() != MAGIC_SECOND)
+            throw new IllegalArgumentException("Not a game snapshot");
+        int version = in.readByte();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unknown snapshot version: " + version);
+
+        int width = in.readByte();
+        int height = in.readByte();
+        Game game = new Game(width, height);
+        Ocean ocean = game.getOcean();
+        int cells = width * height;
+
+        int flags = in.readByte();
+        EnumSet<GameMode> mode = null;
+        if ((flags & FLAG_MODE_NOT_SET) == 0) {
+            mode = EnumSet.noneOf(GameMode.class);
+            if ((flags & FLAG_NO_OPTIONS) != 0) mode.add(GameMode.NO_OPTIONS);
+            if ((flags & FLAG_TORPEDO) != 0) mode.add(GameMode.TORPEDO_MODE_ENABLE);
+            if ((flags & FLAG_RECOVERY) != 0) mode.add(GameMode.SHIP_RECOVERY_MODE_ENABLE);
+        }
+        int availableTorpedo = in.readVarint();
+        int fleetHealth = in.readVarint();
+
+        int ships = in.readVarint();
+        for (int i = 0; i < ships; i++) {
+            int value = in.readVarint();
+            int health = value & 7;
+            int length = value >>> 3 & 7;
+            boolean vertical = (value >>> 6 & 1) == 1;
+            int cell = value >>> 7;
+            Ship ship = Ship.createByLength(length);
+            ship.restoreHealth(health);
+            if (cell >= cells || !ocean.tryPlaceShip(ship, cell % width, cell / width, !vertical))
+                throw new IllegalArgumentException("Incorrect position of the ship " + (i + 1));
+        }
+
+        int shotCount = in.readCount();
+        int[] shots = new int[shotCount];
+        for (int i = 0; i < shotCount; i++) {
+            shots[i] = in.readVarint();
+            if (shots[i] >> 1 >= cells)
+                throw new IllegalArgumentException("Shot out of the ocean: " + (shots[i] >> 1));
+        }
+        game.restoreState(mode, fleetHealth, availableTorpedo, shots, shotCount);
+
+        User user = null;
+        if ((flags & FLAG_USER) != 0) {
+            int actions = in.readVarint();
+            int state = in.readByte();
+            if (state >= USER_STATES.length)
+                throw new IllegalArgumentException("Unknown user state: " + state);
+            int count = in.readCount();
+            List<AttackReport> reports = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int value = in.readVarint();
+                int shipId = in.readVarint();
+                int health = in.readVarint();
+                int cell = value >>> 2;
+                if (cell >= cells || (value & 3) >= RESULTS.length || shipId > ocean.getShipsCount())
+                    throw new IllegalArgumentException("Incorrect attack report " + i);
+                reports.add(new AttackReport(shipId == 0 ? null : ocean.getShipById(shipId), RESULTS[value & 3],
+                        game.getPoint(cell), health, null));
+            }
+            user = new User();
+            user.restoreState(actions, USER_STATES[state], reports);
+            user.setCurrentSession(game);
+            game.addListener(user);
+        }
+        if (!in.isEnd())
+            throw new IllegalArgumentException("Unexpected data after the snapshot");
+        return new GameSnapshot(game, user);
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        private Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            if (size == buffer.length) buffer = Arrays.copyOf(buffer, size * 2);
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte(value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private int readByte() {
+            if (position == buffer.length)
+                throw new IllegalArgumentException("Unexpected end of the snapshot");
+            return buffer[position++] & 0xFF;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int next = readByte();
+                value |= (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    if (value < 0)
+                        throw new IllegalArgumentException("Incorrect number in the snapshot");
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Incorrect number in the snapshot");
+        }
+
+        /**
+         * Read the number of the following items (every item takes at least one byte).
+         */
+        private int readCount() {
+            int count = readVarint();
+            if (count > buffer.length - position)
+                throw new IllegalArgumentException("Unexpected end of the snapshot");
+            return count;
+        }
+
+        private boolean isEnd() {
+            return position == buffer.length;
+        }
+    }
+}
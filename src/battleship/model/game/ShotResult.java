@@ -0,0 +1,50 @@
+package battleship.model.game;
+
+/**
+ * Shot result packed into int (no allocation on the hot path):
+ * bits 0-1 - hit result (MISS, HIT, SUNK), bits 2-9 - id of the attacked ship (0 if missed),
+ * bits 10-31 - fleet health remaining.
+ */
+public final class ShotResult {
+    private static final AttackReport.HitResult[] RESULTS = AttackReport.HitResult.values();
+    private static final int RESULT_BITS = 2;
+    private static final int SHIP_ID_BITS = 8;
+    private static final int HEALTH_SHIFT = RESULT_BITS + SHIP_ID_BITS;
+
+    private ShotResult() {
+    }
+
+    /**
+     * @param result               hit result
+     * @param shipId               id of the attacked ship (0 if missed)
+     * @param fleetHealthRemaining total health remaining
+     * @return packed shot result
+     */
+    public static int pack(AttackReport.HitResult result, int shipId, int fleetHealthRemaining) {
+        return result.ordinal() | shipId << RESULT_BITS | fleetHealthRemaining << HEALTH_SHIFT;
+    }
+
+    /**
+     * @param shotResult packed shot result
+     * @return HitResult
+     */
+    public static AttackReport.HitResult getResult(int shotResult) {
+        return RESULTS[shotResult & ((1 << RESULT_BITS) - 1)];
+    }
+
+    /**
+     * @param shotResult packed shot result
+     * @return id of the attacked ship (0 if missed)
+     */
+    public static int getShipId(int shotResult) {
+        return shotResult >>> RESULT_BITS & ((1 << SHIP_ID_BITS) - 1);
+    }
+
+    /**
+     * @param shotResult packed shot result
+     * @return total health remaining
+     */
+    public static int getFleetHealthRemaining(int shotResult) {
+        return shotResult >>> HEALTH_SHIFT;
+    }
+}
@@ -0,0 +1,36 @@
+package battleship.model.game.journal;
+
+/**
+ * When buffered journal records are written to the file.
+ * Records are committed (written and, if required, forced to the storage device) as a group,
+ * when the group is full or the oldest record of the group waits longer than the delay.
+ * The delay is checked when the next record is appended, so an idle journal should be flushed explicitly.
+ *
+ * @param groupSize      maximum number of records in the group
+ * @param maxDelayMillis maximum waiting time of the record in the buffer
+ * @param fsync          force every commit to the storage device
+ */
+public record CommitPolicy(int groupSize, long maxDelayMillis, boolean fsync) {
+    /**
+     * Every record is forced to the storage device before the shot returns.
+     */
+    public static final CommitPolicy EVERY_RECORD = new CommitPolicy(1, 0, true);
+    /**
+     * Up to 64 records or 10 ms of records are forced to the storage device at once.
+     */
+    public static final CommitPolicy GROUP = new CommitPolicy(64, 10, true);
+    /**
+     * Records are written when the buffer is full and on close, the file is never forced.
+     */
+    public static final CommitPolicy BUFFERED = new CommitPolicy(Integer.MAX_VALUE, Long.MAX_VALUE, false);
+
+    /**
+     * @throws IllegalArgumentException if group size is not positive or delay is negative
+     */
+    public CommitPolicy {
+        if (groupSize < 1)
+            throw new IllegalArgumentException("Group size must be positive: " + groupSize);
+        if (maxDelayMillis < 0)
+            throw new IllegalArgumentException("Delay must be no less than 0: " + maxDelayMillis);
+    }
+}
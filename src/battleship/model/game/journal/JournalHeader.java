@@ -0,0 +1,49 @@
+package battleship.model.game.journal;
+
+import battleship.model.game.Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Configuration of the journaled game. The ships are placed by {@link SplittableRandom} with the seed,
+ * the same way as by the batch controller and the game server, so the layout can be placed again.
+ *
+ * @param sizeHorizontal horizontal size of the ocean
+ * @param sizeVertical   vertical size of the ocean
+ * @param counters       number of ships of every type (from Carrier to Submarine)
+ * @param torpedoes      number of available torpedoes (0 - torpedo mode disabled)
+ * @param recoveryMode   ship recovery mode enabled
+ * @param seed           seed of the ships layout
+ */
+public record JournalHeader(int sizeHorizontal, int sizeVertical, int[] counters, int torpedoes,
+                            boolean recoveryMode, long seed) {
+    /**
+     * @throws IllegalArgumentException if there are not 5 counters
+     */
+    public JournalHeader {
+        if (counters.length != 5)
+            throw new IllegalArgumentException("Number of ships of 5 types required");
+        counters = counters.clone();
+    }
+
+    /**
+     * @return copy of the numbers of ships of every type
+     */
+    @Override
+    public int[] counters() {
+        return counters.clone();
+    }
+
+    /**
+     * Create the game of this configuration before any shot.
+     *
+     * @return new game with placed ships and set mode
+     * @throws RuntimeException if ships cannot be placed on this ocean
+     */
+    public Game createGame() throws RuntimeException {
+        Game game = new Game(sizeHorizontal, sizeVertical, seed);
+        game.placeShipsOnOcean(counters);
+        game.setGameMode(Game.recognizeMode(torpedoes, recoveryMode), torpedoes);
+        return game;
+    }
+}
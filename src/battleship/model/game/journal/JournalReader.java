@@ -0,0 +1,266 @@
+package battleship.model.game.journal;
+
+import battleship.model.game.FiringMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of the journal file. Record fields are available by getters until the next record is read.
+ * <p>
+ * Format (numbers are big-endian):
+ * magic "BJ" and version (3 bytes); horizontal and vertical size (1 byte each); 5 counters of ships (2 bytes each);
+ * torpedoes (2 bytes); recovery mode (1 byte); seed of the layout (8 bytes). Then records, the first byte is the type:
+ * shot - firing mode (1 byte), x, y, packed shot result (4 bytes each);
+ * rejected shot - firing mode (1 byte), x, y (4 bytes each);
+ * salvo - number of shots (4 bytes), these shots follow as shot records;
+ * rollback - fleet health after the recovery (4 bytes), number of points (2 bytes), x and y of every point (1 byte each).
+ * All records are fixed size except the rollback, whose size depends on the number of points.
+ * <p>
+ * Incomplete record at the end of the file (crash during the write) is treated as the end of the journal.
+ */
+public final class JournalReader implements Closeable {
+    static final byte MAGIC_FIRST = 'B';
+    static final byte MAGIC_SECOND = 'J';
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 26;
+
+    /**
+     * Type of the record: end of the journal.
+     */
+    public static final int END = 0;
+    public static final int SHOT = 1;
+    public static final int REJECTED = 2;
+    public static final int SALVO = 3;
+    public static final int ROLLBACK = 4;
+
+    static final int SHOT_SIZE = 14;
+    static final int REJECTED_SIZE = 10;
+    static final int SALVO_SIZE = 5;
+    static final int ROLLBACK_SIZE = 7;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final FiringMode[] FIRING_MODES = FiringMode.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final JournalHeader header;
+    private boolean endOfFile;
+    private boolean truncated;
+    private long position;
+
+    private FiringMode firingMode;
+    private int x;
+    private int y;
+    private int shotResult;
+    private int count;
+    private int fleetHealth;
+    private int[] pointsX = new int[16];
+    private int[] pointsY = new int[16];
+
+    /**
+     * Open the journal and read its header.
+     *
+     * @param file journal file
+     * @throws IOException if file cannot be read or it is not a journal
+     */
+    public JournalReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        try {
+            header = readHeader();
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    private JournalHeader readHeader() throws IOException {
+        if (!fill(HEADER_SIZE) || buffer.get() != MAGIC_FIRST || buffer.get() != MAGIC_SECOND)
+            throw new IOException("File is not a game journal");
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION)
+            throw new IOException("Unknown journal version: " + version);
+        int sizeHorizontal = buffer.get() & 0xFF;
+        int sizeVertical = buffer.get() & 0xFF;
+        int[] counters = new int[5];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = buffer.getShort() & 0xFFFF;
+        }
+        int torpedoes = buffer.getShort() & 0xFFFF;
+        boolean recoveryMode = buffer.get() != 0;
+        long seed = buffer.getLong();
+        position = HEADER_SIZE;
+        return new JournalHeader(sizeHorizontal, sizeVertical, counters, torpedoes, recoveryMode, seed);
+    }
+
+    /**
+     * @return configuration of the game
+     */
+    public JournalHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return type of the record, {@link #END} at the end of the journal
+     * @throws IOException if file cannot be read or record has unknown type
+     */
+    public int next() throws IOException {
+        if (!fill(1)) return END;
+        int type = buffer.get(buffer.position());
+        if (type == END) {
+            // zeros after the last record: file space was allocated, but the data wasn't written
+            truncated = true;
+            return END;
+        }
+        int size = switch (type) {
+            case SHOT -> SHOT_SIZE;
+            case REJECTED -> REJECTED_SIZE;
+            case SALVO -> SALVO_SIZE;
+            case ROLLBACK -> ROLLBACK_SIZE;
+            default -> throw new IOException("Unknown record type " + type + " at " + position);
+        };
+        if (!fill(size)) return END;
+        if (type == ROLLBACK) {
+            size += (buffer.getShort(buffer.position() + 5) & 0xFFFF) * 2;
+            if (!fill(size)) return END;
+        }
+
+        buffer.get();
+        switch (type) {
+            case SHOT -> {
+                readShot();
+                shotResult = buffer.getInt();
+            }
+            case REJECTED -> readShot();
+            case SALVO -> count = buffer.getInt();
+            default -> readRollback();
+        }
+        position += size;
+        return type;
+    }
+
+    private void readShot() throws IOException {
+        int mode = buffer.get();
+        if (mode < 0 || mode >= FIRING_MODES.length)
+            throw new IOException("Unknown firing mode " + mode + " at " + position);
+        firingMode = FIRING_MODES[mode];
+        x = buffer.getInt();
+        y = buffer.getInt();
+    }
+
+    private void readRollback() {
+        fleetHealth = buffer.getInt();
+        count = buffer.getShort() & 0xFFFF;
+        if (count > pointsX.length) {
+            pointsX = Arrays.copyOf(pointsX, count);
+            pointsY = Arrays.copyOf(pointsY, count);
+        }
+        for (int i = 0; i < count; i++) {
+            pointsX[i] = buffer.get();
+            pointsY[i] = buffer.get();
+        }
+    }
+
+    /**
+     * Make sure that the buffer contains at least size bytes.
+     *
+     * @return false if the file ends before (the rest of the file is incomplete record)
+     */
+    private boolean fill(int size) throws IOException {
+        while (buffer.remaining() < size) {
+            if (endOfFile) {
+                truncated = buffer.hasRemaining();
+                return false;
+            }
+            buffer.compact();
+            endOfFile = channel.read(buffer) < 0;
+            buffer.flip();
+        }
+        return true;
+    }
+
+    /**
+     * @return offset of the end of the last read record
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return true if the journal ends with incomplete record
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return firing mode of the shot or rejected shot
+     */
+    public FiringMode getFiringMode() {
+        return firingMode;
+    }
+
+    /**
+     * @return horizontal coordinate of the shot or rejected shot
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return vertical coordinate of the shot or rejected shot
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return packed shot result of the shot (see {@link battleship.model.game.ShotResult})
+     */
+    public int getShotResult() {
+        return shotResult;
+    }
+
+    /**
+     * @return number of shots of the salvo or number of points of the rollback
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return fleet health after the rollback
+     */
+    public int getFleetHealth() {
+        return fleetHealth;
+    }
+
+    /**
+     * @param index index of the point of the rollback
+     * @return horizontal coordinate of the recovered point
+     */
+    public int getPointX(int index) {
+        return pointsX[index];
+    }
+
+    /**
+     * @param index index of the point of the rollback
+     * @return vertical coordinate of the recovered point
+     */
+    public int getPointY(int index) {
+        return pointsY[index];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,244 @@
+package battleship.model.game.journal;
+
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.GameJournal;
+import battleship.model.game.ocean.Point;
+import battleship.model.game.user.User;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Rebuild the game by streaming its journal: the ships are placed again by the seed from the header
+ * and every shot is done again by the user. Game is deterministic, so results of the shots and recovery rollbacks
+ * must be the same as in the journal, every difference is reported as error.
+ * Incomplete records at the end of the journal are skipped, so the journal can be continued after the crash
+ * (see {@link JournalWriter#reopen(Path, JournalReplay, CommitPolicy)}).
+ */
+public final class JournalReplay {
+    private final JournalHeader header;
+    private final Game game;
+    private final User user;
+    private long validLength;
+    private boolean truncated;
+    private int shots;
+    private int rejected;
+    private int salvos;
+    private int rollbacks;
+    /**
+     * Rollbacks done by the replayed game, which haven't been compared with the journal yet.
+     */
+    private final ArrayDeque<Rollback> pendingRollbacks = new ArrayDeque<>();
+
+    private JournalReplay(JournalHeader header) {
+        this.header = header;
+        game = header.createGame();
+        user = new User();
+        game.addListener(user);
+        user.setCurrentSession(game);
+    }
+
+    /**
+     * Replay the journal.
+     *
+     * @param file journal file
+     * @return replay with the game in the state after the last complete record
+     * @throws IOException if file cannot be read or the journal doesn't match the game
+     */
+    public static JournalReplay replay(Path file) throws IOException {
+        try (JournalReader reader = new JournalReader(file)) {
+            JournalReplay replay = new JournalReplay(reader.getHeader());
+            replay.run(reader);
+            replay.game.setJournal(null);
+            return replay;
+        }
+    }
+
+    private void run(JournalReader reader) throws IOException {
+        game.setJournal(new RollbackCollector(pendingRollbacks));
+        int[] cells = new int[0];
+        FiringMode[] modes = new FiringMode[0];
+        int[] expected = new int[0];
+        int[] results = new int[0];
+
+        validLength = reader.getPosition();
+        for (int type = reader.next(); type != JournalReader.END; type = reader.next()) {
+            if (type != JournalReader.ROLLBACK && !pendingRollbacks.isEmpty())
+                throw mismatch(reader, "rollback is missing in the journal");
+
+            switch (type) {
+                case JournalReader.SHOT -> {
+                    int result = user.hitOnPlace(reader.getX(), reader.getY(), reader.getFiringMode());
+                    if (result != reader.getShotResult())
+                        throw mismatch(reader, "shot result " + result + " instead of " + reader.getShotResult());
+                    ++shots;
+                }
+                case JournalReader.REJECTED -> {
+                    try {
+                        user.hitOnPlace(reader.getX(), reader.getY(), reader.getFiringMode());
+                        throw mismatch(reader, "rejected shot has been done");
+                    } catch (IllegalArgumentException ex) {
+                        ++rejected;
+                    }
+                }
+                case JournalReader.SALVO -> {
+                    int count = reader.getCount();
+                    // Game rejects salvos longer than the number of cells, so only a corrupted journal has them
+                    if (count < 0 || count > header.sizeHorizontal() * header.sizeVertical())
+                        throw mismatch(reader, "salvo of " + count + " shots");
+                    if (count > cells.length) {
+                        cells = new int[count];
+                        modes = new FiringMode[count];
+                        expected = new int[count];
+                        results = new int[count];
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int shotType = reader.next();
+                        if (shotType == JournalReader.END) {
+                            // salvo is incomplete: it hasn't been fired in the journaled game either
+                            truncated = true;
+                            return;
+                        }
+                        if (shotType != JournalReader.SHOT)
+                            throw mismatch(reader, "shot of the salvo expected");
+                        cells[i] = reader.getY() * header.sizeHorizontal() + reader.getX();
+                        modes[i] = reader.getFiringMode();
+                        expected[i] = reader.getShotResult();
+                    }
+                    user.hitOnPlaces(cells, modes, results, count);
+                    for (int i = 0; i < count; i++) {
+                        if (results[i] != expected[i])
+                            throw mismatch(reader, "salvo shot result " + results[i] + " instead of " + expected[i]);
+                    }
+                    shots += count;
+                    ++salvos;
+                }
+                default -> {
+                    Rollback rollback = pendingRollbacks.poll();
+                    if (rollback == null || !matches(rollback, reader))
+                        throw mismatch(reader, "rollback differs from the game");
+                    ++rollbacks;
+                }
+            }
+            validLength = reader.getPosition();
+        }
+        truncated |= reader.isTruncated();
+    }
+
+    private static boolean matches(Rollback rollback, JournalReader reader) {
+        if (rollback.fleetHealth() != reader.getFleetHealth() || rollback.points().size() != reader.getCount())
+            return false;
+        for (int i = 0; i < reader.getCount(); i++) {
+            Point point = rollback.points().get(i);
+            if (point.x() != reader.getPointX(i) || point.y() != reader.getPointY(i)) return false;
+        }
+        return true;
+    }
+
+    private static IOException mismatch(JournalReader reader, String message) {
+        return new IOException("Journal doesn't match the game at " + reader.getPosition() + ": " + message);
+    }
+
+    /**
+     * @return configuration of the game
+     */
+    public JournalHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return rebuilt game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return user of the rebuilt game (subscribed to the game)
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * @return length of the journal without incomplete records at the end
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    /**
+     * @return true if incomplete records at the end of the journal have been skipped
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return number of replayed shots (including shots of salvos)
+     */
+    public int getShots() {
+        return shots;
+    }
+
+    /**
+     * @return number of replayed rejected shots
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return number of replayed salvos
+     */
+    public int getSalvos() {
+        return salvos;
+    }
+
+    /**
+     * @return number of replayed recovery rollbacks
+     */
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    /**
+     * Rollbacks done by the replayed game after the last complete record of the journal
+     * (their records have been lost at the end of the journal).
+     */
+    ArrayDeque<Rollback> getPendingRollbacks() {
+        return pendingRollbacks;
+    }
+
+    /**
+     * Recovery rollback of the replayed game.
+     */
+    record Rollback(int fleetHealth, List<Point> points) {
+    }
+
+    /**
+     * Collects rollbacks of the replayed game.
+     */
+    private record RollbackCollector(ArrayDeque<Rollback> done) implements GameJournal {
+        @Override
+        public void onShot(int x, int y, FiringMode firingMode, int shotResult) {
+        }
+
+        @Override
+        public void onRejectedShot(int x, int y, FiringMode firingMode) {
+        }
+
+        @Override
+        public void onSalvo(int count) {
+        }
+
+        @Override
+        public void onRollback(int fleetHealth, List<Point> points) {
+            // the list of points is cleared by the game owner after the view is updated
+            done.add(new Rollback(fleetHealth, List.copyOf(points)));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package battleship.model.game.journal;
+
+import battleship.model.game.FiringMode;
+import battleship.model.game.GameJournal;
+import battleship.model.game.ocean.Point;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal file of one game.
+ * Records are collected in the direct buffer and written to the file channel by groups
+ * according to the {@link CommitPolicy}. Format of the file is described in {@link JournalReader}.
+ * Journal is not thread-safe, as the game itself.
+ */
+public final class JournalWriter implements GameJournal, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CommitPolicy policy;
+    private final long maxDelayNanos;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private int uncommitted;
+    private long oldestUncommitted;
+    private long records;
+    private long commits;
+
+    private JournalWriter(FileChannel channel, CommitPolicy policy) {
+        this.channel = channel;
+        this.policy = policy;
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(policy.maxDelayMillis());
+    }
+
+    /**
+     * Create new journal (existing file is truncated) and commit its header.
+     *
+     * @param file   journal file
+     * @param header configuration of the game
+     * @param policy commit policy
+     * @return journal to set to the game before the first shot
+     * @throws IOException if file cannot be written
+     */
+    public static JournalWriter create(Path file, JournalHeader header, CommitPolicy policy) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        JournalWriter writer = new JournalWriter(channel, policy);
+        try {
+            writer.writeHeader(header);
+            writer.commit();
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        return writer;
+    }
+
+    /**
+     * Continue the replayed journal: incomplete records at the end of the file are cut off,
+     * rollbacks of the replayed game which records have been lost are appended
+     * and the journal is set to the replayed game.
+     *
+     * @param file   journal file
+     * @param replay replay of this file
+     * @param policy commit policy
+     * @return journal of the replayed game
+     * @throws IOException if file cannot be written
+     */
+    public static JournalWriter reopen(Path file, JournalReplay replay, CommitPolicy policy) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(replay.getValidLength());
+            channel.position(replay.getValidLength());
+            if (policy.fsync()) channel.force(true);
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        JournalWriter writer = new JournalWriter(channel, policy);
+        for (JournalReplay.Rollback rollback : replay.getPendingRollbacks()) {
+            writer.onRollback(rollback.fleetHealth(), rollback.points());
+        }
+        replay.getPendingRollbacks().clear();
+        replay.getGame().setJournal(writer);
+        return writer;
+    }
+
+    private void writeHeader(JournalHeader header) {
+        buffer.put(JournalReader.MAGIC_FIRST).put(JournalReader.MAGIC_SECOND).put((byte) JournalReader.VERSION);
+        buffer.put((byte) header.sizeHorizontal()).put((byte) header.sizeVertical());
+        for (int counter : header.counters()) {
+            buffer.putShort((short) counter);
+        }
+        buffer.putShort((short) header.torpedoes());
+        buffer.put((byte) (header.recoveryMode() ? 1 : 0));
+        buffer.putLong(header.seed());
+    }
+
+    @Override
+    public void onShot(int x, int y, FiringMode firingMode, int shotResult) {
+        reserve(JournalReader.SHOT_SIZE);
+        buffer.put((byte) JournalReader.SHOT).put((byte) firingMode.ordinal())
+                .putInt(x).putInt(y).putInt(shotResult);
+        appended();
+    }
+
+    @Override
+    public void onRejectedShot(int x, int y, FiringMode firingMode) {
+        reserve(JournalReader.REJECTED_SIZE);
+        buffer.put((byte) JournalReader.REJECTED).put((byte) firingMode.ordinal()).putInt(x).putInt(y);
+        appended();
+    }
+
+    @Override
+    public void onSalvo(int count) {
+        reserve(JournalReader.SALVO_SIZE);
+        buffer.put((byte) JournalReader.SALVO).putInt(count);
+        appended();
+    }
+
+    @Override
+    public void onRollback(int fleetHealth, List<Point> points) {
+        reserve(JournalReader.ROLLBACK_SIZE + points.size() * 2);
+        buffer.put((byte) JournalReader.ROLLBACK).putInt(fleetHealth).putShort((short) points.size());
+        for (Point point : points) {
+            buffer.put((byte) point.x()).put((byte) point.y());
+        }
+        appended();
+    }
+
+    /**
+     * Write buffered records to the file and force them if the policy requires.
+     *
+     * @throws UncheckedIOException if file cannot be written
+     */
+    public void flush() throws UncheckedIOException {
+        try {
+            commit();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Commit buffered records and close the file.
+     *
+     * @throws IOException if file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return number of appended records
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return number of commits
+     */
+    public long getCommits() {
+        return commits;
+    }
+
+    private void reserve(int size) {
+        if (buffer.remaining() >= size) return;
+        try {
+            write();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void appended() {
+        ++records;
+        if (uncommitted++ == 0) oldestUncommitted = System.nanoTime();
+        if (uncommitted >= policy.groupSize() || System.nanoTime() - oldestUncommitted >= maxDelayNanos) {
+            flush();
+        }
+    }
+
+    private void commit() throws IOException {
+        if (buffer.position() == 0 && uncommitted == 0) return;
+        write();
+        if (policy.fsync()) channel.force(false);
+        uncommitted = 0;
+        ++commits;
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package battleship.model.game.ocean;
+
+/**
+ * Occupancy bitboard of the ocean: one int per row, bit x is set when cell (x, y) is occupied.
+ * Forbidden mask (halo) contains occupied cells and all their neighbours,
+ * so the ship can be placed only on cells which are not forbidden.
+ */
+class BitBoard {
+    private final int width;
+    private final int height;
+    private final int fullRow;
+    private final int[] occupied;
+    private final int[] forbidden;
+
+    /**
+     * @param width  horizontal size (no more than 30)
+     * @param height vertical size
+     */
+    BitBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        fullRow = (1 << width) - 1;
+        occupied = new int[height];
+        forbidden = new int[height];
+    }
+
+    /**
+     * @param board board to copy
+     */
+    BitBoard(BitBoard board) {
+        width = board.width;
+        height = board.height;
+        fullRow = board.fullRow;
+        occupied = board.occupied.clone();
+        forbidden = board.forbidden.clone();
+    }
+
+    /**
+     * @param x horizontal coordinate (inside the board)
+     * @param y vertical coordinate (inside the board)
+     * @return true if cell is occupied
+     */
+    boolean isOccupied(int x, int y) {
+        return (occupied[y] >>> x & 1) != 0;
+    }
+
+    /**
+     * @param x          horizontal coordinate of the left (upper) end of the ship
+     * @param y          vertical coordinate of the left (upper) end of the ship
+     * @param length     length of the ship
+     * @param horizontal direction of the ship
+     * @return true if ship is inside the board and doesn't touch other ships
+     */
+    boolean canPlace(int x, int y, int length, boolean horizontal) {
+        if (x < 0 || y < 0) return false;
+        if (horizontal) {
+            if (x + length > width || y >= height) return false;
+            return (forbidden[y] & rowBits(x, length)) == 0;
+        }
+        if (x >= width || y + length > height) return false;
+        int bit = 1 << x;
+        for (int i = y; i < y + length; i++) {
+            if ((forbidden[i] & bit) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Count all positions where the ship can be placed.
+     *
+     * @param length length of the ship
+     * @return number of positions (one-cell ship is counted once for both directions)
+     */
+    int countPlacements(int length) {
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            int free = ~forbidden[y] & fullRow;
+            int starts = free;
+            for (int i = 1; i < length; i++) {
+                starts &= free >>> i;
+            }
+            count += Integer.bitCount(starts);
+
+            if (length > 1 && y + length <= height) {
+                starts = free;
+                for (int i = 1; i < length; i++) {
+                    starts &= ~forbidden[y + i];
+                }
+                count += Integer.bitCount(starts);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param y vertical coordinate (inside the board)
+     * @return bits of the row which are not forbidden
+     */
+    int freeRow(int y) {
+        return ~forbidden[y] & fullRow;
+    }
+
+    /**
+     * Occupy cells of the ship and forbid its neighbours.
+     *
+     * @param x          horizontal coordinate of the left (upper) end of the ship
+     * @param y          vertical coordinate of the left (upper) end of the ship
+     * @param length     length of the ship
+     * @param horizontal direction of the ship
+     */
+    void place(int x, int y, int length, boolean horizontal) {
+        int bits = horizontal ? rowBits(x, length) : 1 << x;
+        int endY = horizontal ? y : y + length - 1;
+        for (int i = y; i <= endY; i++) {
+            occupied[i] |= bits;
+        }
+        int halo = spread(bits);
+        for (int i = Math.max(0, y - 1); i <= Math.min(height - 1, endY + 1); i++) {
+            forbidden[i] |= halo;
+        }
+    }
+
+    /**
+     * Free cells of the ship and recalculate forbidden mask around it.
+     *
+     * @param x          horizontal coordinate of the left (upper) end of the ship
+     * @param y          vertical coordinate of the left (upper) end of the ship
+     * @param length     length of the ship
+     * @param horizontal direction of the ship
+     */
+    void remove(int x, int y, int length, boolean horizontal) {
+        int bits = horizontal ? rowBits(x, length) : 1 << x;
+        int endY = horizontal ? y : y + length - 1;
+        for (int i = y; i <= endY; i++) {
+            occupied[i] &= ~bits;
+        }
+        for (int i = Math.max(0, y - 1); i <= Math.min(height - 1, endY + 1); i++) {
+            int around = occupied[i];
+            if (i > 0) around |= occupied[i - 1];
+            if (i < height - 1) around |= occupied[i + 1];
+            forbidden[i] = spread(around);
+        }
+    }
+
+    private int rowBits(int x, int length) {
+        return ((1 << length) - 1) << x;
+    }
+
+    private int spread(int bits) {
+        return (bits | bits << 1 | bits >>> 1) & fullRow;
+    }
+}
@@ -0,0 +1,19 @@
+package battleship.model.game.ocean;
+
+/**
+ * Result of the feasibility check of the fleet on the ocean (see {@link LayoutCounter#checkFeasibility}).
+ */
+public enum Feasibility {
+    /**
+     * The fleet has legal layouts (proved by the found layout or the exact count).
+     */
+    FEASIBLE,
+    /**
+     * The fleet has no legal layout.
+     */
+    INFEASIBLE,
+    /**
+     * Necessary conditions hold, but the ocean is too big for the exact check.
+     */
+    UNKNOWN
+}
@@ -0,0 +1,938 @@
+package battleship.model.game.ocean;
+
+import battleship.model.ships.Ship;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Number of legal layouts of the fleet (ships don't touch each other even by corners, identical ships
+ * are not distinguished).
+ * <p>
+ * Exact count is the transfer-matrix dynamic programming over the cells of the ocean row by row
+ * (the ocean is transposed, so rows are along the shorter side). The state is the profile: for every column
+ * the last processed cell - empty, end of the vertical ship of length k which can grow down, or cell which
+ * cannot touch the next row - and one bit for the upper left neighbour of the next cell.
+ * Every state keeps the number of partial layouts for every number of finished ships of every length.
+ * Work of every step is divided between processors by the hash of the new state,
+ * so the states are merged without locks. Exact count is available for oceans with the shorter side
+ * up to {@link #MAX_EXACT_WIDTH}. The same states counted from the end give the numbers of completions
+ * for the uniform random layout ({@link Completions}).
+ * <p>
+ * For bigger oceans the number of layouts is estimated by Knuth's estimator: the ships are placed one by one
+ * on uniformly chosen legal positions ({@link SequentialSampler}), the product of the numbers of legal positions
+ * is the unbiased estimate of the number of ordered placements.
+ */
+public final class LayoutCounter {
+    /**
+     * Maximum shorter side of the ocean for the exact count.
+     */
+    public static final int MAX_EXACT_WIDTH = 10;
+    /**
+     * Maximum number of combinations of finished ships for the exact feasibility check
+     * in {@link #checkFeasibility(int, int, int[])}.
+     */
+    private static final int MAX_FEASIBILITY_COMBINATIONS = 1 << 12;
+    /**
+     * Maximum number of cached results of the feasibility check.
+     */
+    private static final int MAX_CACHED_FEASIBILITY = 1 << 10;
+    private static final int MAX_LENGTH = 5;
+    private static final int ESTIMATE_CHUNKS = 64;
+    private static final Map<String, Feasibility> FEASIBILITY = new ConcurrentHashMap<>();
+
+    private LayoutCounter() {
+    }
+
+    /**
+     * Check if the fleet can be placed on the ocean. First the necessary conditions are checked: every ship fits
+     * into the ocean, ships with their neighbours to the right and below fit into the ocean extended by one row
+     * and one column, and there are no more ships than 2x2 blocks of the ocean (two ships never share the block).
+     * Then the fleet is feasible if the sequential placement finds its layout in a few attempts. Otherwise oceans with the shorter side up to {@link #MAX_EXACT_WIDTH} are checked exactly
+     * (if the fleet has no more than {@link #MAX_FEASIBILITY_COMBINATIONS} combinations of finished ships,
+     * results are cached), the other oceans are unknown.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @return {@link Feasibility#INFEASIBLE} if there is no legal layout, {@link Feasibility#FEASIBLE}
+     * if the layout has been found, otherwise {@link Feasibility#UNKNOWN}
+     */
+    public static Feasibility checkFeasibility(int sizeHorizontal, int sizeVertical, int[] counters) {
+        int[] byLength = byLength(counters);
+        long area = 0;
+        long ships = 0;
+        long combinations = 1;
+        for (int length = 1; length <= MAX_LENGTH; length++) {
+            if (byLength[length] < 0) return Feasibility.INFEASIBLE;
+            if (byLength[length] > 0 && length > Math.max(sizeHorizontal, sizeVertical)) return Feasibility.INFEASIBLE;
+            area += (length + 1) * 2L * byLength[length];
+            ships += byLength[length];
+            combinations = Math.min(combinations * (byLength[length] + 1), Integer.MAX_VALUE);
+        }
+        if (area > (long) (sizeHorizontal + 1) * (sizeVertical + 1)) return Feasibility.INFEASIBLE;
+        if (ships > (long) ((sizeHorizontal + 1) / 2) * ((sizeVertical + 1) / 2)) return Feasibility.INFEASIBLE;
+        // any layout found by the few attempts of the sequential placement proves the fleet
+        if (new SequentialSampler(new Ocean(sizeHorizontal, sizeVertical), new SplittableRandom(0))
+                .findLayout(Ship.convertInputIntegersToShips(counters))) return Feasibility.FEASIBLE;
+        if (!canCountExactly(sizeHorizontal, sizeVertical) || combinations > MAX_FEASIBILITY_COMBINATIONS)
+            return Feasibility.UNKNOWN;
+
+        int width = Math.min(sizeHorizontal, sizeVertical);
+        int height = Math.max(sizeHorizontal, sizeVertical);
+        String key = width + "x" + height + ":" + Arrays.toString(byLength);
+        Feasibility cached = FEASIBILITY.get(key);
+        if (cached != null) return cached;
+        Feasibility feasibility = new Profile(width, height, byLength, true, 1).count().signum() > 0 ?
+                Feasibility.FEASIBLE : Feasibility.INFEASIBLE;
+        if (FEASIBILITY.size() < MAX_CACHED_FEASIBILITY) FEASIBILITY.put(key, feasibility);
+        return feasibility;
+    }
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @return true if the number of layouts on the ocean can be counted exactly
+     */
+    public static boolean canCountExactly(int sizeHorizontal, int sizeVertical) {
+        return Math.min(sizeHorizontal, sizeVertical) <= MAX_EXACT_WIDTH;
+    }
+
+    /**
+     * Exact number of legal layouts, on all available processors.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @return number of layouts
+     * @throws IllegalArgumentException if the ocean is too big for the exact count
+     */
+    public static BigInteger count(int sizeHorizontal, int sizeVertical, int[] counters) throws IllegalArgumentException {
+        return count(sizeHorizontal, sizeVertical, counters, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Exact number of legal layouts.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param parallelism    number of workers
+     * @return number of layouts
+     * @throws IllegalArgumentException if the ocean is too big for the exact count
+     */
+    public static BigInteger count(int sizeHorizontal, int sizeVertical, int[] counters, int parallelism)
+            throws IllegalArgumentException {
+        if (!canCountExactly(sizeHorizontal, sizeVertical))
+            throw new IllegalArgumentException("Cannot count layouts exactly on the ocean with size: %dx%d"
+                    .formatted(sizeHorizontal, sizeVertical));
+        int width = Math.min(sizeHorizontal, sizeVertical);
+        int height = Math.max(sizeHorizontal, sizeVertical);
+        int[] byLength = byLength(counters);
+        return new Profile(width, height, byLength, false, parallelism).count();
+    }
+
+    /**
+     * Exact number of legal layouts if the count is cheap, on all available processors.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param maxEntries     maximum number of numbers of all states and combinations of all steps
+     * @return number of layouts, null if the ocean is too big for the exact count or the count needs more numbers
+     */
+    static BigInteger count(int sizeHorizontal, int sizeVertical, int[] counters, long maxEntries) {
+        if (!canCountExactly(sizeHorizontal, sizeVertical)) return null;
+        int width = Math.min(sizeHorizontal, sizeVertical);
+        int height = Math.max(sizeHorizontal, sizeVertical);
+        int[] byLength = byLength(counters);
+        if (Completions.keys(new Profile(width, height, byLength, false, 1), maxEntries) == null) return null;
+        return new Profile(width, height, byLength, false, Runtime.getRuntime().availableProcessors()).count();
+    }
+
+    /**
+     * Estimate the number of legal layouts, on all available processors.
+     * Samples are divided into {@link #ESTIMATE_CHUNKS} chunks with their own random sources split from the seed,
+     * so the estimate depends only on the seed and the number of samples.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param samples        number of random placements
+     * @param seed           seed of the random placements
+     * @return estimate with its standard error
+     */
+    public static Estimate estimate(int sizeHorizontal, int sizeVertical, int[] counters, int samples, long seed) {
+        List<Ship> ships = Ship.convertInputIntegersToShips(counters);
+        // identical ships are placed in any order
+        double orders = 1;
+        for (int counter : counters) {
+            for (int i = 2; i <= counter; i++) {
+                orders *= i;
+            }
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[ESTIMATE_CHUNKS];
+        for (int i = 0; i < ESTIMATE_CHUNKS; i++) {
+            randoms[i] = root.split();
+        }
+        double[][] sums = IntStream.range(0, ESTIMATE_CHUNKS).parallel().mapToObj(chunk -> {
+            int chunkSamples = samples / ESTIMATE_CHUNKS + (chunk < samples % ESTIMATE_CHUNKS ? 1 : 0);
+            double sum = 0;
+            double squares = 0;
+            for (int i = 0; i < chunkSamples; i++) {
+                double weight = new SequentialSampler(new Ocean(sizeHorizontal, sizeVertical), randoms[chunk])
+                        .weigh(ships);
+                sum += weight;
+                squares += weight * weight;
+            }
+            return new double[]{sum, squares};
+        }).toArray(double[][]::new);
+
+        double sum = 0;
+        double squares = 0;
+        for (double[] chunkSums : sums) {
+            sum += chunkSums[0];
+            squares += chunkSums[1];
+        }
+        double mean = sum / samples;
+        double variance = samples > 1 ? Math.max(0, (squares - sum * mean) / (samples - 1)) : 0;
+        return new Estimate(mean / orders, Math.sqrt(variance / samples) / orders, samples);
+    }
+
+    /**
+     * Numbers of completions of every partial layout for the uniform sampling (see {@link Completions}).
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param maxEntries     maximum number of stored numbers
+     * @return tables, null if the ocean is too big for the exact count or tables need more numbers
+     */
+    static Completions completions(int sizeHorizontal, int sizeVertical, int[] counters, long maxEntries) {
+        if (!canCountExactly(sizeHorizontal, sizeVertical)) return null;
+        int width = Math.min(sizeHorizontal, sizeVertical);
+        int height = Math.max(sizeHorizontal, sizeVertical);
+        Profile profile = new Profile(width, height, byLength(counters), false, 1);
+        return Completions.build(profile, sizeHorizontal > sizeVertical, maxEntries);
+    }
+
+    /**
+     * @param counters number of ships of every type (from Carrier to Submarine)
+     * @return number of ships by length
+     */
+    private static int[] byLength(int[] counters) {
+        int[] byLength = new int[MAX_LENGTH + 1];
+        for (int i = 0; i < counters.length && i < MAX_LENGTH; i++) {
+            byLength[MAX_LENGTH - i] = counters[i];
+        }
+        return byLength;
+    }
+
+    /**
+     * Estimated number of layouts.
+     *
+     * @param layouts       estimate
+     * @param standardError standard error of the estimate
+     * @param samples       number of random placements
+     */
+    public record Estimate(double layouts, double standardError, int samples) {
+        @Override
+        public String toString() {
+            return "%.4e +- %.2e (%d samples)".formatted(layouts, standardError, samples);
+        }
+    }
+
+    /**
+     * Dynamic programming over the cells of the ocean.
+     * <p>
+     * Column state (4 bits): {@link #EMPTY}, 1..5 - end of the vertical ship of this length
+     * (one cell may become vertical or horizontal ship), 6..9 - end of the horizontal ship
+     * of length 2..5 in the current row, {@link #BLOCKED} - ship cell which cannot be continued.
+     * Bit {@link #DIAGONAL} of the state is set if the cell above the previous cell is occupied.
+     * <p>
+     * Value of the state has the number of partial layouts for every combination of finished ships,
+     * combination is the mixed radix number (digit of the length is from 0 to the number of ships of this length),
+     * every number takes {@link #limbs} longs of 63 bits (the number of limbs is doubled when the sum overflows).
+     * For the feasibility check the value is the bit set of combinations which have partial layouts,
+     * so finishing the ship is the shift of the bit set.
+     * <p>
+     * At the end of the row the states which are mirror images of each other have the same number of completions,
+     * so they are merged.
+     */
+    private static final class Profile {
+        private static final int EMPTY = 0;
+        /**
+         * End of the horizontal ship of length k is HORIZONTAL + k.
+         */
+        private static final int HORIZONTAL = 4;
+        private static final int BLOCKED = 10;
+        private static final long DIAGONAL = 1L << 60;
+        private static final long MASK = Long.MAX_VALUE;
+
+        private final int width;
+        private final int height;
+        private int limbs;
+        private final boolean feasibility;
+        private final int parallelism;
+        private final int maxLength;
+        private final int combinations;
+        /**
+         * Number of longs of the value.
+         */
+        private int stride;
+        private final int[] counters;
+        private final int[] radix = new int[MAX_LENGTH + 1];
+        /**
+         * Number of ships which are not shorter than the length.
+         */
+        private final int[] notShorter = new int[MAX_LENGTH + 2];
+        /**
+         * Combination after finishing two ships (lengths first * (MAX_LENGTH + 1) + second, 0 - no ship),
+         * -1 if there are too many ships.
+         */
+        private final int[][] finished = new int[(MAX_LENGTH + 1) * (MAX_LENGTH + 1)][];
+        /**
+         * Bit sets of combinations which can get one more ship of the length.
+         */
+        private final long[][] notFull = new long[MAX_LENGTH + 1][];
+        private volatile boolean overflow;
+
+        /**
+         * @param width       number of columns (no more than 15)
+         * @param height      number of rows
+         * @param counters    number of ships by length
+         * @param feasibility true if only existence of layouts is checked
+         * @param parallelism number of workers
+         */
+        Profile(int width, int height, int[] counters, boolean feasibility, int parallelism) {
+            this.width = width;
+            this.height = height;
+            this.counters = counters;
+            limbs = 1;
+            this.feasibility = feasibility;
+            this.parallelism = parallelism;
+
+            int maxLength = 0;
+            int combinations = 1;
+            for (int length = 1; length <= MAX_LENGTH; length++) {
+                radix[length] = combinations;
+                combinations *= counters[length] + 1;
+                if (counters[length] > 0) maxLength = length;
+            }
+            for (int length = MAX_LENGTH; length >= 1; length--) {
+                notShorter[length] = notShorter[length + 1] + counters[length];
+            }
+            this.maxLength = maxLength;
+            this.combinations = combinations;
+            stride = feasibility ? (combinations + 63) / 64 : combinations * limbs;
+
+            int[][] single = new int[MAX_LENGTH + 1][combinations];
+            for (int length = 0; length <= MAX_LENGTH; length++) {
+                notFull[length] = new long[stride];
+                for (int combination = 0; combination < combinations; combination++) {
+                    int digit = length == 0 ? -1 : combination / radix[length] % (counters[length] + 1);
+                    single[length][combination] = length == 0 ? combination :
+                            digit < counters[length] ? combination + radix[length] : -1;
+                    if (feasibility && single[length][combination] >= 0)
+                        notFull[length][combination >> 6] |= 1L << combination;
+                }
+            }
+            for (int first = 0; first <= MAX_LENGTH; first++) {
+                for (int second = 0; second <= MAX_LENGTH; second++) {
+                    int[] both = new int[combinations];
+                    for (int combination = 0; combination < combinations; combination++) {
+                        int to = single[first][combination];
+                        both[combination] = to < 0 ? -1 : single[second][to];
+                    }
+                    finished[first * (MAX_LENGTH + 1) + second] = both;
+                }
+            }
+        }
+
+        /**
+         * @return number of layouts (1 or 0 for the feasibility)
+         */
+        BigInteger count() {
+            States initial = new States(stride);
+            initial.values[initial.index(0L)] = 1;
+            List<States> layer = List.of(initial);
+            for (int cell = 0; cell < width * height; ) {
+                int column = cell % width;
+                List<States> previous = layer;
+                List<States> next = IntStream.range(0, parallelism).parallel()
+                        .mapToObj(worker -> step(previous, column, worker))
+                        .toList();
+                if (column == width - 1 && !overflow) {
+                    List<States> rowEnd = next;
+                    next = IntStream.range(0, parallelism).parallel()
+                            .mapToObj(worker -> mirror(rowEnd, worker))
+                            .toList();
+                }
+                if (overflow) {
+                    // the step is done again with the longer numbers
+                    overflow = false;
+                    layer = widen(layer);
+                    continue;
+                }
+                layer = next;
+                ++cell;
+            }
+
+            long[] total;
+            do {
+                overflow = false;
+                total = new long[Math.max(limbs, stride)];
+                for (States states : layer) {
+                    for (int i = 0; i < states.size; i++) {
+                        addLast(total, states.keys[i], states.values, i * stride);
+                    }
+                }
+                if (overflow) layer = widen(layer);
+            } while (overflow);
+            if (feasibility) return total[0] != 0 ? BigInteger.ONE : BigInteger.ZERO;
+            BigInteger result = BigInteger.ZERO;
+            for (int i = limbs - 1; i >= 0; i--) {
+                result = result.shiftLeft(63).add(BigInteger.valueOf(total[i]));
+            }
+            return result;
+        }
+
+        /**
+         * Add the number of layouts of the state which have all ships after vertical ships of the last row
+         * are finished.
+         */
+        private void addLast(long[] total, long key, long[] values, int from) {
+            long[] value = new long[stride];
+            long[] shifted = new long[stride];
+            System.arraycopy(values, from, value, 0, stride);
+            for (int column = 0; column < width; column++) {
+                int cell = cell(key, column);
+                if (!isVertical(cell)) continue;
+                if (feasibility) {
+                    shift(value, 0, cell, shifted);
+                    System.arraycopy(shifted, 0, value, 0, stride);
+                } else {
+                    Arrays.fill(shifted, 0);
+                    addFinished(shifted, 0, value, 0, finished[cell * (MAX_LENGTH + 1)]);
+                    System.arraycopy(shifted, 0, value, 0, stride);
+                }
+            }
+            int last = combinations - 1;
+            if (feasibility) {
+                if ((value[last >> 6] >>> last & 1) != 0) total[0] = 1;
+            } else {
+                add(total, 0, value, last * limbs);
+            }
+        }
+
+        /**
+         * New states of the worker (by the hash of the state).
+         */
+        private States step(List<States> layer, int column, int worker) {
+            States next = new States(stride);
+            long[] shifted = feasibility ? new long[stride] : null;
+            long[] keys = new long[2];
+            int[] finishes = new int[2];
+            for (States states : layer) {
+                for (int i = 0; i < states.size; i++) {
+                    int count = transitions(states.keys[i], column, keys, finishes);
+                    for (int t = 0; t < count; t++) {
+                        emit(next, worker, keys[t], states.values, i * stride, finishes[t] / (MAX_LENGTH + 1),
+                                finishes[t] % (MAX_LENGTH + 1), shifted);
+                    }
+                }
+            }
+            return next;
+        }
+
+        /**
+         * New states after the cell of the column: the empty cell and the ship cell (if it can be there).
+         *
+         * @param keys     new states
+         * @param finishes ships finished by the cell: first length * (MAX_LENGTH + 1) + second length (0 - none)
+         * @return number of new states (the first one is the empty cell)
+         */
+        private int transitions(long key, int column, long[] keys, int[] finishes) {
+            int up = cell(key, column);
+            int left = column > 0 ? cell(key, column - 1) : EMPTY;
+            boolean upLeft = column > 0 && (key & DIAGONAL) != 0;
+            boolean upRight = column < width - 1 && cell(key, column + 1) != EMPTY;
+            long diagonal = column < width - 1 && up != EMPTY ? DIAGONAL : 0;
+            long base = key & ~DIAGONAL;
+
+            // empty cell: vertical ship above and horizontal ship to the left are finished
+            int finishedUp = isVertical(up) ? up : 0;
+            int finishedLeft = isHorizontal(left) ? left - HORIZONTAL : 0;
+            long emptyKey = set(base, column, EMPTY);
+            if (finishedLeft > 0) emptyKey = set(emptyKey, column - 1, BLOCKED);
+            keys[0] = emptyKey | diagonal;
+            finishes[0] = finishedUp * (MAX_LENGTH + 1) + finishedLeft;
+
+            // ship cell
+            if (upLeft || upRight) return 1;
+            int cell;
+            long shipKey = base;
+            if (up != EMPTY) {
+                // only vertical ship can be continued down, and it cannot touch the cell to the left
+                if (!isVertical(up) || up >= maxLength || left != EMPTY) return 1;
+                cell = up + 1;
+            } else if (left == EMPTY) {
+                cell = 1;
+            } else if (left == 1 || isHorizontal(left)) {
+                int length = left == 1 ? 2 : left - HORIZONTAL + 1;
+                if (length > maxLength) return 1;
+                cell = HORIZONTAL + length;
+                shipKey = set(shipKey, column - 1, BLOCKED);
+            } else {
+                return 1;
+            }
+            int finishedRow = 0;
+            if (column == width - 1 && isHorizontal(cell)) {
+                // horizontal ship is finished by the end of the row
+                finishedRow = cell - HORIZONTAL;
+                cell = BLOCKED;
+            }
+            keys[1] = set(shipKey, column, cell) | diagonal;
+            finishes[1] = finishedRow * (MAX_LENGTH + 1);
+            return 2;
+        }
+
+        /**
+         * Add the value to the new state if the state belongs to the worker.
+         *
+         * @param first   length of the finished ship (0 - none)
+         * @param second  length of the other finished ship (0 - none)
+         * @param shifted buffer for the feasibility check
+         */
+        private void emit(States next, int worker, long key, long[] values, int from, int first, int second,
+                          long[] shifted) {
+            long hash = mix(key);
+            if ((int) ((hash >>> 32) % parallelism) != worker || !canFinish(key)) return;
+
+            if (feasibility) {
+                shift(values, from, first, shifted);
+                if (second > 0) {
+                    long[] once = shifted.clone();
+                    shift(once, 0, second, shifted);
+                }
+                if (isZero(shifted, 0, stride)) return;
+                int to = next.index(key, hash);
+                for (int i = 0; i < stride; i++) {
+                    next.values[to + i] |= shifted[i];
+                }
+                return;
+            }
+            if (isZero(values, from, stride)) return;
+            int to = next.index(key, hash);
+            if (limbs == 1 && second == 0) {
+                addShifted(next.values, to, values, from, first);
+            } else {
+                addFinished(next.values, to, values, from, finished[first * (MAX_LENGTH + 1) + second]);
+            }
+        }
+
+        /**
+         * Add numbers (one limb) of all combinations to the numbers of combinations after finishing the ship.
+         * Combinations which can get the ship of the length are the ranges of radix[length] * counters[length]
+         * combinations, so numbers are added by ranges.
+         *
+         * @param length length of the finished ship (0 - none)
+         */
+        private void addShifted(long[] target, int to, long[] values, int from, int length) {
+            int shift = length == 0 ? 0 : radix[length];
+            int block = length == 0 ? combinations : radix[length] * (counters[length] + 1);
+            int range = block - shift;
+            // numbers are less than 2^63, so the overflow sets the sign bit
+            long sums = 0;
+            for (int start = 0; start < combinations; start += block) {
+                int targetStart = to + start + shift;
+                int valueStart = from + start;
+                for (int i = 0; i < range; i++) {
+                    long sum = target[targetStart + i] + values[valueStart + i];
+                    target[targetStart + i] = sum;
+                    sums |= sum;
+                }
+            }
+            if (sums < 0) overflow = true;
+        }
+
+        /**
+         * Add numbers of all combinations to the numbers of combinations after finishing ships.
+         */
+        private void addFinished(long[] target, int to, long[] values, int from, int[] finishing) {
+            if (limbs == 1) {
+                for (int combination = 0; combination < combinations; combination++) {
+                    long value = values[from + combination];
+                    int combinationTo = finishing[combination];
+                    if (value == 0 || combinationTo < 0) continue;
+                    long sum = target[to + combinationTo] + value;
+                    if (sum < 0) overflow = true;
+                    target[to + combinationTo] = sum;
+                }
+                return;
+            }
+            for (int combination = 0; combination < combinations; combination++) {
+                int combinationTo = finishing[combination];
+                if (combinationTo >= 0) add(target, to + combinationTo * limbs, values, from + combination * limbs);
+            }
+        }
+
+        private void add(long[] target, int to, long[] values, int from) {
+            long carry = 0;
+            for (int i = 0; i < limbs; i++) {
+                long sum = target[to + i] + values[from + i] + carry;
+                target[to + i] = sum & MASK;
+                carry = sum >>> 63;
+            }
+            if (carry != 0) overflow = true;
+        }
+
+        /**
+         * States of the worker after merging mirror images at the end of the row.
+         */
+        private States mirror(List<States> layer, int worker) {
+            States next = new States(stride);
+            for (States states : layer) {
+                for (int i = 0; i < states.size; i++) {
+                    long key = states.keys[i];
+                    long mirrored = 0;
+                    for (int column = 0; column < width; column++) {
+                        mirrored = set(mirrored, width - 1 - column, cell(key, column));
+                    }
+                    key = Math.min(key, mirrored);
+                    long hash = mix(key);
+                    if ((int) ((hash >>> 32) % parallelism) != worker) continue;
+                    int to = next.index(key, hash);
+                    addAll(next.values, to, states.values, i * stride);
+                }
+            }
+            return next;
+        }
+
+        private void addAll(long[] target, int to, long[] values, int from) {
+            if (feasibility) {
+                for (int i = 0; i < stride; i++) {
+                    target[to + i] |= values[from + i];
+                }
+            } else if (limbs == 1) {
+                addShifted(target, to, values, from, 0);
+            } else {
+                addFinished(target, to, values, from, finished[0]);
+            }
+        }
+
+        /**
+         * Copy states with twice as many limbs of every number.
+         */
+        private List<States> widen(List<States> layer) {
+            int wider = limbs * 2;
+            List<States> result = new ArrayList<>();
+            for (States states : layer) {
+                States copy = new States(combinations * wider);
+                for (int i = 0; i < states.size; i++) {
+                    int to = copy.index(states.keys[i]);
+                    for (int combination = 0; combination < combinations; combination++) {
+                        System.arraycopy(states.values, i * stride + combination * limbs,
+                                copy.values, to + combination * wider, limbs);
+                    }
+                }
+                result.add(copy);
+            }
+            limbs = wider;
+            stride = combinations * wider;
+            return result;
+        }
+
+        /**
+         * Bit set of combinations after finishing the ship of the length (0 - copy).
+         */
+        private void shift(long[] values, int from, int length, long[] result) {
+            if (length == 0) {
+                System.arraycopy(values, from, result, 0, stride);
+                return;
+            }
+            int words = radix[length] >> 6;
+            int bits = radix[length] & 63;
+            long[] mask = notFull[length];
+            Arrays.fill(result, 0);
+            for (int i = stride - 1; i >= words; i--) {
+                long low = values[from + i - words] & mask[i - words];
+                long lower = bits > 0 && i - words > 0 ? values[from + i - words - 1] & mask[i - words - 1] : 0;
+                result[i] = bits > 0 ? low << bits | lower >>> 64 - bits : low;
+            }
+        }
+
+        /**
+         * Every not finished ship needs the ship of the fleet which isn't shorter.
+         */
+        private boolean canFinish(long key) {
+            int[] started = new int[MAX_LENGTH + 2];
+            for (int column = 0; column < width; column++) {
+                int cell = cell(key, column);
+                if (isVertical(cell)) ++started[cell];
+                else if (isHorizontal(cell)) ++started[cell - HORIZONTAL];
+            }
+            int notShorterStarted = 0;
+            for (int length = MAX_LENGTH; length >= 1; length--) {
+                notShorterStarted += started[length];
+                if (notShorterStarted > notShorter[length]) return false;
+            }
+            return true;
+        }
+
+        private static boolean isZero(long[] values, int from, int length) {
+            for (int i = 0; i < length; i++) {
+                if (values[from + i] != 0) return false;
+            }
+            return true;
+        }
+
+        private static boolean isVertical(int cell) {
+            return cell >= 1 && cell <= MAX_LENGTH;
+        }
+
+        private static boolean isHorizontal(int cell) {
+            return cell > MAX_LENGTH && cell < BLOCKED;
+        }
+
+        private static int cell(long key, int column) {
+            return (int) (key >>> column * 4) & 0xF;
+        }
+
+        private static long set(long key, int column, int cell) {
+            return key & ~(0xFL << column * 4) | (long) cell << column * 4;
+        }
+
+        private static long mix(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return hash ^ hash >>> 29;
+        }
+    }
+
+    /**
+     * Number of ways to finish the layout from every state of the {@link Profile} before every cell
+     * (mirror images are not merged) and every combination of finished ships.
+     * The layout is drawn cell by cell, the empty cell or the ship cell is taken with the probability
+     * proportional to the number of its completions, so every legal layout has the same probability
+     * and no draw is rejected.
+     */
+    static final class Completions {
+        private final Profile profile;
+        private final boolean transposed;
+        /**
+         * Sorted states before every cell (and after the last one).
+         */
+        private final long[][] keys;
+        /**
+         * Number of completions by state and combination: state index * combinations + combination.
+         */
+        private final long[][] values;
+
+        private Completions(Profile profile, boolean transposed, long[][] keys, long[][] values) {
+            this.profile = profile;
+            this.transposed = transposed;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * @return tables, null if they need more than maxEntries numbers or a number doesn't fit into long
+         */
+        private static Completions build(Profile profile, boolean transposed, long maxEntries) {
+            long[][] keys = keys(profile, maxEntries);
+            if (keys == null) return null;
+            int cells = profile.width * profile.height;
+            int combinations = profile.combinations;
+            long[] next = new long[2];
+            int[] finishes = new int[2];
+
+            long[][] values = new long[cells + 1][];
+            long[] last = keys[cells];
+            values[cells] = new long[last.length * combinations];
+            for (int i = 0; i < last.length; i++) {
+                for (int combination = 0; combination < combinations; combination++) {
+                    // vertical ships of the last row are finished by the border
+                    int to = combination;
+                    for (int column = 0; column < profile.width && to >= 0; column++) {
+                        int cell = Profile.cell(last[i], column);
+                        if (Profile.isVertical(cell)) to = profile.finished[cell * (MAX_LENGTH + 1)][to];
+                    }
+                    if (to == combinations - 1) values[cells][i * combinations + combination] = 1;
+                }
+            }
+            try {
+                for (int cell = cells - 1; cell >= 0; cell--) {
+                    long[] layer = keys[cell];
+                    long[] value = new long[layer.length * combinations];
+                    for (int i = 0; i < layer.length; i++) {
+                        int count = profile.transitions(layer[i], cell % profile.width, next, finishes);
+                        for (int t = 0; t < count; t++) {
+                            int j = Arrays.binarySearch(keys[cell + 1], next[t]);
+                            if (j < 0) continue;
+                            int[] finishing = profile.finished[finishes[t]];
+                            for (int combination = 0; combination < combinations; combination++) {
+                                int to = finishing[combination];
+                                if (to < 0) continue;
+                                value[i * combinations + combination] = Math.addExact(
+                                        value[i * combinations + combination],
+                                        values[cell + 1][j * combinations + to]);
+                            }
+                        }
+                    }
+                    values[cell] = value;
+                }
+            } catch (ArithmeticException exception) {
+                return null;
+            }
+            return new Completions(profile, transposed, keys, values);
+        }
+
+        /**
+         * Sorted states before every cell (and after the last one), without the numbers.
+         *
+         * @return states, null if the numbers of all states and combinations are more than maxEntries
+         */
+        private static long[][] keys(Profile profile, long maxEntries) {
+            int cells = profile.width * profile.height;
+            int combinations = profile.combinations;
+            long[][] keys = new long[cells + 1][];
+            keys[0] = new long[]{0L};
+            long entries = combinations;
+            long[] next = new long[2];
+            int[] finishes = new int[2];
+            for (int cell = 0; cell < cells; cell++) {
+                long[] layer = new long[keys[cell].length * 2];
+                int size = 0;
+                for (long key : keys[cell]) {
+                    int count = profile.transitions(key, cell % profile.width, next, finishes);
+                    for (int t = 0; t < count; t++) {
+                        if (profile.canFinish(next[t])) layer[size++] = next[t];
+                    }
+                }
+                Arrays.sort(layer, 0, size);
+                int unique = 0;
+                for (int i = 0; i < size; i++) {
+                    if (unique == 0 || layer[i] != layer[unique - 1]) layer[unique++] = layer[i];
+                }
+                keys[cell + 1] = Arrays.copyOf(layer, unique);
+                entries += (long) unique * combinations;
+                if (entries > maxEntries) return null;
+            }
+            return keys;
+        }
+
+        /**
+         * @return number of legal layouts
+         */
+        long count() {
+            return values[0][0];
+        }
+
+        /**
+         * Draw the uniform random layout.
+         *
+         * @param random   source of randomness
+         * @param occupied cells of the ocean (y * horizontal size + x) which are set if they are occupied by ships
+         * @return false if there is no legal layout
+         */
+        boolean sample(RandomGenerator random, boolean[] occupied) {
+            int width = profile.width;
+            int combinations = profile.combinations;
+            long[] next = new long[2];
+            int[] finishes = new int[2];
+            int[] indexes = new int[2];
+            int[] combinationsTo = new int[2];
+            long[] weights = new long[2];
+            int index = 0;
+            int combination = 0;
+            long total = count();
+            if (total == 0) return false;
+            for (int cell = 0; cell < keys.length - 1; cell++) {
+                int count = profile.transitions(keys[cell][index], cell % width, next, finishes);
+                for (int t = 0; t < count; t++) {
+                    indexes[t] = Arrays.binarySearch(keys[cell + 1], next[t]);
+                    combinationsTo[t] = profile.finished[finishes[t]][combination];
+                    weights[t] = indexes[t] < 0 || combinationsTo[t] < 0 ? 0 :
+                            values[cell + 1][indexes[t] * combinations + combinationsTo[t]];
+                }
+                // weights of the choices sum up to the number of completions of the state
+                int choice = random.nextLong(total) < weights[0] ? 0 : 1;
+                if (choice == 1) {
+                    int row = cell / width;
+                    int column = cell % width;
+                    occupied[transposed ? column * profile.height + row : row * width + column] = true;
+                }
+                index = indexes[choice];
+                combination = combinationsTo[choice];
+                total = weights[choice];
+            }
+            return true;
+        }
+    }
+
+    /**
+     * States of the profile with their values (open addressing hash table).
+     */
+    private static final class States {
+        private final int stride;
+        private long[] keys = new long[64];
+        private long[] values;
+        private int[] table = new int[128];
+        private int size;
+
+        States(int stride) {
+            this.stride = stride;
+            values = new long[keys.length * stride];
+        }
+
+        int index(long key) {
+            return index(key, Profile.mix(key));
+        }
+
+        /**
+         * @return offset of the value of the state (new state has zero value)
+         */
+        int index(long key, long hash) {
+            int mask = table.length - 1;
+            for (int slot = (int) hash & mask; ; slot = slot + 1 & mask) {
+                int index = table[slot] - 1;
+                if (index < 0) break;
+                if (keys[index] == key) return index * stride;
+            }
+            if (size * 2 >= table.length) grow();
+            mask = table.length - 1;
+            int slot = (int) hash & mask;
+            while (table[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2 * stride);
+            }
+            keys[size] = key;
+            table[slot] = ++size;
+            return (size - 1) * stride;
+        }
+
+        private void grow() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int index = 0; index < size; index++) {
+                int slot = (int) Profile.mix(keys[index]) & mask;
+                while (table[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                table[slot] = index + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package battleship.model.game.ocean;
+
+import battleship.model.ships.Ship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Memory-mapped file of pre-generated layouts of the fleet for several configurations (ocean size and ship counters).
+ * Placing the fleet from the database is one random index and one short per ship, without any search.
+ * <p>
+ * Format (numbers are big-endian): magic "BL" and version (3 bytes); number of configurations (2 bytes);
+ * for every configuration: horizontal and vertical size, 5 counters of ships (1 byte each),
+ * number of layouts (4 bytes), offset of the layouts in the file (8 bytes).
+ * Layout is one short per ship, ships are sorted by length descending:
+ * start cell (y * horizontal size + x) &lt;&lt; 4 | 1 &lt;&lt; 3 if vertical | length.
+ */
+public final class LayoutDatabase {
+    private static final byte MAGIC_FIRST = 'B';
+    private static final byte MAGIC_SECOND = 'L';
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int ENTRY_SIZE = 19;
+    private static final int MAX_COUNTER = 255;
+    private static final int CHUNK = 1 << 14;
+
+    private final Map<Long, Section> sections;
+
+    private LayoutDatabase(Map<Long, Section> sections) {
+        this.sections = sections;
+    }
+
+    /**
+     * Configuration of the game stored in the database.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     */
+    public record Configuration(int sizeHorizontal, int sizeVertical, int[] counters) {
+        /**
+         * @throws IllegalArgumentException if configuration cannot be stored in the database
+         */
+        public Configuration {
+            if (key(sizeHorizontal, sizeVertical, counters) < 0)
+                throw new IllegalArgumentException("Configuration cannot be stored: ocean up to 30x30, " +
+                        "5 counters up to " + MAX_COUNTER + " required");
+            counters = counters.clone();
+        }
+    }
+
+    /**
+     * Layouts of one configuration.
+     *
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param lengths        lengths of the ships in order of the layout
+     * @param layouts        number of layouts
+     * @param data           mapped layouts
+     */
+    private record Section(int sizeHorizontal, int sizeVertical, int[] lengths, int layouts, ByteBuffer data) {
+    }
+
+    /**
+     * @return key of the configuration, -1 if it cannot be stored in the database
+     */
+    private static long key(int sizeHorizontal, int sizeVertical, int[] counters) {
+        if (sizeHorizontal < 1 || sizeHorizontal > 30 || sizeVertical < 1 || sizeVertical > 30 || counters.length != 5)
+            return -1;
+        long key = (long) sizeHorizontal << 5 | sizeVertical;
+        for (int counter : counters) {
+            if (counter < 0 || counter > MAX_COUNTER) return -1;
+            key = key << 8 | counter;
+        }
+        return key;
+    }
+
+    /**
+     * @return lengths of the ships sorted descending
+     */
+    private static int[] lengths(int[] counters) {
+        int[] lengths = new int[IntStream.of(counters).sum()];
+        int index = 0;
+        for (int i = 0; i < counters.length; i++) {
+            for (int j = 0; j < counters[i]; j++) {
+                lengths[index++] = counters.length - i;
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Open the database, layouts are mapped into memory.
+     *
+     * @param file database file
+     * @return database
+     * @throws IOException if file cannot be read or it is not a layout database
+     */
+    public static LayoutDatabase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.get() != MAGIC_FIRST || header.get() != MAGIC_SECOND)
+                throw new IOException("File is not a layout database");
+            int version = header.get() & 0xFF;
+            if (version != VERSION)
+                throw new IOException("Unknown layout database version: " + version);
+            int count = header.getShort() & 0xFFFF;
+
+            ByteBuffer directory = ByteBuffer.allocate(count * ENTRY_SIZE);
+            readFully(channel, directory, HEADER_SIZE);
+            Map<Long, Section> sections = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int sizeHorizontal = directory.get() & 0xFF;
+                int sizeVertical = directory.get() & 0xFF;
+                int[] counters = new int[5];
+                for (int j = 0; j < counters.length; j++) {
+                    counters[j] = directory.get() & 0xFF;
+                }
+                int layouts = directory.getInt();
+                long offset = directory.getLong();
+                int[] lengths = lengths(counters);
+                long size = (long) layouts * lengths.length * 2;
+                long key = key(sizeHorizontal, sizeVertical, counters);
+                if (key < 0 || layouts <= 0 || size > Integer.MAX_VALUE || offset + size > channel.size())
+                    throw new IOException("Incorrect layout database entry " + i);
+
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+                sections.put(key, new Section(sizeHorizontal, sizeVertical, lengths, layouts, data));
+            }
+            return new LayoutDatabase(sections);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of the layout database");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @return number of stored layouts of the configuration (0 if configuration is unknown)
+     */
+    public int getLayouts(int sizeHorizontal, int sizeVertical, int[] counters) {
+        Section section = sections.get(key(sizeHorizontal, sizeVertical, counters));
+        return section == null ? 0 : section.layouts();
+    }
+
+    /**
+     * Place the fleet on the empty ocean by the random stored layout.
+     *
+     * @param ocean    empty ocean
+     * @param counters number of ships of every type (from Carrier to Submarine)
+     * @param random   source of randomness
+     * @return true if the fleet has been placed, false if configuration is unknown or ocean isn't empty
+     * @throws IllegalStateException if stored layout is incorrect (ocean stays unchanged)
+     */
+    public boolean place(Ocean ocean, int[] counters, RandomGenerator random) throws IllegalStateException {
+        Section section = sections.get(key(ocean.getSizeHorizontal(), ocean.getSizeVertical(), counters));
+        if (section == null || ocean.getShipsCount() != 0) return false;
+
+        int[] lengths = section.lengths();
+        int width = section.sizeHorizontal();
+        int start = random.nextInt(section.layouts()) * lengths.length * 2;
+        ByteBuffer data = section.data();
+
+        // check the whole layout before the ocean is changed
+        BitBoard board = new BitBoard(width, section.sizeVertical());
+        for (int i = 0; i < lengths.length; i++) {
+            int ship = data.getShort(start + i * 2);
+            int cell = ship >>> 4;
+            boolean horizontal = (ship & 8) == 0;
+            if ((ship & 7) != lengths[i] || !board.canPlace(cell % width, cell / width, lengths[i], horizontal))
+                throw new IllegalStateException("Incorrect layout in the database");
+            board.place(cell % width, cell / width, lengths[i], horizontal);
+        }
+        for (int i = 0; i < lengths.length; i++) {
+            int ship = data.getShort(start + i * 2);
+            int cell = ship >>> 4;
+            ocean.placeShip(Ship.createByLength(lengths[i]), cell % width, cell / width, (ship & 8) == 0);
+        }
+        return true;
+    }
+
+    /**
+     * Generate layouts of the configurations and write them to the database file (existing file is replaced).
+     * Layouts are generated in parallel chunks, every chunk has its own random split from the seed,
+     * so the file depends only on the arguments.
+     *
+     * @param file           database file
+     * @param configurations configurations of the games
+     * @param layouts        number of layouts of every configuration
+     * @param seed           seed of the layouts
+     * @throws IOException              if file cannot be written
+     * @throws IllegalArgumentException if number of layouts is not positive or data is too large
+     * @throws RuntimeException         if ships of some configuration cannot be placed on its ocean
+     */
+    public static void generate(Path file, List<Configuration> configurations, int layouts, long seed)
+            throws IOException, RuntimeException {
+        if (layouts <= 0)
+            throw new IllegalArgumentException("Number of layouts must be positive");
+        if (configurations.size() > 0xFFFF)
+            throw new IllegalArgumentException("Too many configurations: " + configurations.size());
+
+        SplittableRandom random = new SplittableRandom(seed);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + configurations.size() * ENTRY_SIZE);
+        header.put(MAGIC_FIRST).put(MAGIC_SECOND).put((byte) VERSION).putShort((short) configurations.size());
+        long offset = header.capacity();
+        long[] offsets = new long[configurations.size()];
+        for (int i = 0; i < configurations.size(); i++) {
+            Configuration configuration = configurations.get(i);
+            long size = (long) layouts * lengths(configuration.counters()).length * 2;
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Too many layouts of the configuration " + i);
+            if (LayoutCounter.checkFeasibility(configuration.sizeHorizontal(), configuration.sizeVertical(),
+                    configuration.counters()) == Feasibility.INFEASIBLE)
+                throw new RuntimeException("Cannot place ships of the configuration " + i + " on its ocean");
+            header.put((byte) configuration.sizeHorizontal()).put((byte) configuration.sizeVertical());
+            for (int counter : configuration.counters()) {
+                header.put((byte) counter);
+            }
+            header.putInt(layouts).putLong(offset);
+            offsets[i] = offset;
+            offset += size;
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (int i = 0; i < configurations.size(); i++) {
+                Configuration configuration = configurations.get(i);
+                int ships = lengths(configuration.counters()).length;
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, offsets[i], (long) layouts * ships * 2);
+
+                int chunks = (layouts + CHUNK - 1) / CHUNK;
+                SplittableRandom[] randoms = new SplittableRandom[chunks];
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    randoms[chunk] = random.split();
+                }
+                // chunks write disjoint ranges of the buffer by absolute index
+                IntStream.range(0, chunks).parallel().forEach(chunk -> generateChunk(configuration, data,
+                        chunk * CHUNK, Math.min(layouts, (chunk + 1) * CHUNK), randoms[chunk]));
+                data.force();
+            }
+        }
+    }
+
+    private static void generateChunk(Configuration configuration, ByteBuffer data, int from, int to,
+                                      SplittableRandom random) {
+        Ocean empty = new Ocean(configuration.sizeHorizontal(), configuration.sizeVertical());
+        List<Ship> ships = Ship.convertInputIntegersToShips(configuration.counters());
+        int[] layout = new int[ships.size()];
+        for (int index = from; index < to; index++) {
+            // the search restarts itself and is bounded, so one search is enough
+            ShipPlacer placer = new ShipPlacer(empty, random);
+            if (!placer.findLayout(ships))
+                throw new RuntimeException("Cannot place ships on this ocean");
+            for (int i = 0; i < layout.length; i++) {
+                int slot = placer.getPlacedSlot(i);
+                layout[i] = (slot >> 1) << 4 | (slot & 1) << 3 | placer.getPlacedShip(i).getLength();
+            }
+            // ships are stored by length descending
+            sortByLength(layout);
+            int position = index * layout.length * 2;
+            for (int i = 0; i < layout.length; i++) {
+                data.putShort(position + i * 2, (short) layout[i]);
+            }
+        }
+    }
+
+    private static void sortByLength(int[] layout) {
+        for (int i = 1; i < layout.length; i++) {
+            int ship = layout[i];
+            int j = i - 1;
+            while (j >= 0 && (layout[j] & 7) < (ship & 7)) {
+                layout[j + 1] = layout[j];
+                --j;
+            }
+            layout[j + 1] = ship;
+        }
+    }
+}
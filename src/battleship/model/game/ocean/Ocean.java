@@ -1,14 +1,38 @@
 package battleship.model.game.ocean;
 
+import battleship.metrics.Metrics;
 import battleship.model.ships.Ship;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
 
 public class Ocean {
     private final int sizeHorizontal;
     private final int sizeVertical;
-    private final Ship[][] ocean;
+    /**
+     * Id of the ship on every cell (y * sizeHorizontal + x), 0 if the cell is empty.
+     */
+    private final short[] shipIds;
+    /**
+     * Ship by id (id = index + 1).
+     */
+    private final List<Ship> ships = new ArrayList<>();
+    /**
+     * Cells occupied by ship by id (id = index + 1).
+     */
+    private final List<List<Point>> shipCells = new ArrayList<>();
+    private final BitBoard board;
+    private final PointPool points;
+    /**
+     * Set if the ships have been placed by the uniform sampler, see {@link #isUniformLayout()}.
+     */
+    private boolean uniformLayout;
 
     /**
      * @return horizontal size of the ocean
@@ -31,38 +55,145 @@ public class Ocean {
 
         this.sizeHorizontal = sizeHorizontal;
         this.sizeVertical = sizeVertical;
-        ocean = new Ship[sizeVertical][sizeHorizontal];
+        shipIds = new short[sizeHorizontal * sizeVertical];
+        board = new BitBoard(sizeHorizontal, sizeVertical);
+        points = PointPool.of(sizeHorizontal, sizeVertical);
     }
 
-    private static final int MAX_ATTEMPTS = 30;
+    /**
+     * @return pool of shared points of the ocean
+     */
+    public PointPool getPointPool() {
+        return points;
+    }
 
     /**
      * Random place list of ships
      *
-     * @param ships list of ships to place
-     * @param ocean ocean on which ships needs to be placed
-     * @return Ocean
-     */
-    public static Ocean randomPlace(List<Ship> ships, Ocean ocean) {
-        int attempts = 0;
-        while (attempts++ < MAX_ATTEMPTS) {
-            Ocean newOcean = getRandomOcean(ships, ocean);
-            if (newOcean != null) {
-                return newOcean;
+     * @param ships  list of ships to place
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     * @return Ocean, or null if it's impossible to place ships (ocean stays unchanged)
+     */
+    public static Ocean randomPlace(List<Ship> ships, Ocean ocean, RandomGenerator random) {
+        long start = Metrics.start();
+        ShipPlacer placer = new ShipPlacer(ocean, random);
+        boolean placed = placer.place(ships);
+        if (Metrics.ENABLED)
+            Metrics.placement(start, ships.size(), placed, placer.getAttempts(), placer.getSteps());
+        return placed ? ocean : null;
+    }
+
+    /**
+     * Random place list of ships by several independent searches racing in the common {@link ForkJoinPool}.
+     * Every search works on its own copy of the bitboard with its own random generator split from the given one.
+     * The first found layout is placed on the ocean and the other searches are cancelled.
+     * The layout depends on which search finishes first, so it isn't reproduced by the same seed.
+     *
+     * @param ships    list of ships to place
+     * @param ocean    ocean on which ships needs to be placed
+     * @param random   source of randomness
+     * @param searches number of independent searches
+     * @return Ocean, or null if it's impossible to place ships (ocean stays unchanged)
+     * @throws IllegalArgumentException if the number of searches isn't positive
+     */
+    public static Ocean parallelPlace(List<Ship> ships, Ocean ocean, SplittableRandom random, int searches)
+            throws IllegalArgumentException {
+        if (searches < 1) throw new IllegalArgumentException("Cannot run %d placement searches".formatted(searches));
+
+        long start = Metrics.start();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<ShipPlacer> winner = new AtomicReference<>();
+        ShipPlacer[] placers = new ShipPlacer[searches];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[searches];
+        for (int i = 0; i < searches; i++) {
+            ShipPlacer placer = new ShipPlacer(ocean, random.split(), cancelled);
+            placers[i] = placer;
+            tasks[i] = ForkJoinPool.commonPool().submit(() -> {
+                if (placer.findLayout(ships) && winner.compareAndSet(null, placer)) cancelled.set(true);
+            });
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        if (Metrics.ENABLED) {
+            int attempts = 0;
+            int steps = 0;
+            for (ShipPlacer placer : placers) {
+                attempts += placer.getAttempts();
+                steps += placer.getSteps();
             }
+            Metrics.placement(start, ships.size(), winner.get() != null, attempts, steps);
         }
-        return null;
+        if (winner.get() == null) return null;
+        winner.get().apply();
+        return ocean;
     }
 
-    private static Ocean getRandomOcean(List<Ship> ships, Ocean ocean) {
-        for (Ship ship : ships) {
-            ShipPosition pos = ShipPosition.getRandomShipPosition(ocean, ship);
-            if (pos == null)
-                return null;
+    /**
+     * Random place list of ships one by one, every ship on the random position among the positions
+     * which are still legal (see {@link SequentialSampler}, layouts are not uniform). If the sampler
+     * cannot finish the layout in several attempts, ships are placed by the search
+     * as in {@link #randomPlace(List, Ocean, RandomGenerator)}.
+     *
+     * @param ships  list of ships to place
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     * @return Ocean, or null if it's impossible to place ships (ocean stays unchanged)
+     */
+    public static Ocean sequentialPlace(List<Ship> ships, Ocean ocean, RandomGenerator random) {
+        long start = Metrics.start();
+        SequentialSampler sampler = new SequentialSampler(ocean, random);
+        boolean placed = sampler.findLayout(ships);
+        if (Metrics.ENABLED)
+            Metrics.placement(start, ships.size(), placed, sampler.getAttempts(), sampler.getDraws());
+        if (!placed) return randomPlace(ships, ocean, random);
+
+        for (int i = 0; i < ships.size(); i++) {
+            int cell = sampler.getPlacedSlot(i) >> 1;
+            ocean.placeShip(sampler.getPlacedShip(i), cell % ocean.sizeHorizontal, cell / ocean.sizeHorizontal,
+                    (sampler.getPlacedSlot(i) & 1) == 0);
         }
         return ocean;
     }
 
+    /**
+     * Random place list of ships, every legal layout has the same probability (see {@link UniformSampler}).
+     * If the sampler cannot find the layout, ships are placed as in
+     * {@link #sequentialPlace(List, Ocean, RandomGenerator)} and the layout is not uniform:
+     * {@link #isUniformLayout()} tells which placement has been used.
+     *
+     * @param ships  list of ships to place
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     * @return Ocean, or null if it's impossible to place ships (ocean stays unchanged)
+     */
+    public static Ocean uniformPlace(List<Ship> ships, Ocean ocean, RandomGenerator random) {
+        long start = Metrics.start();
+        UniformSampler sampler = new UniformSampler(ocean, random);
+        boolean placed = sampler.findLayout(ships);
+        if (Metrics.ENABLED)
+            Metrics.placement(start, ships.size(), placed, sampler.getAttempts(), sampler.getDraws());
+        ocean.uniformLayout = placed;
+        if (!placed) return sequentialPlace(ships, ocean, random);
+
+        for (int i = 0; i < ships.size(); i++) {
+            int cell = sampler.getPlacedSlot(i) >> 1;
+            ocean.placeShip(sampler.getPlacedShip(i), cell % ocean.sizeHorizontal, cell / ocean.sizeHorizontal,
+                    (sampler.getPlacedSlot(i) & 1) == 0);
+        }
+        return ocean;
+    }
+
+    /**
+     * @return true if the ships have been placed by {@link #uniformPlace(List, Ocean, RandomGenerator)}
+     * with the uniform sampler, false if it has fallen back to the non-uniform placement or other placement was used
+     */
+    public boolean isUniformLayout() {
+        return uniformLayout;
+    }
+
     /**
      * @param pos position to check
      * @return true if it is empty, otherwise false.
@@ -77,8 +208,49 @@ public class Ocean {
      * @return Ship on position, if position is out of ocean or empty return null
      */
     public Ship getShipByPosition(Point pos) {
-        if (indexOutOfOcean(pos)) return null;
-        return ocean[pos.y()][pos.x()];
+        return getShipById(getShipId(pos));
+    }
+
+    /**
+     * @param pos position
+     * @return id of the ship on position (from 1 to number of ships), if position is out of ocean or empty return 0
+     */
+    public int getShipId(Point pos) {
+        return getShipId(pos.x(), pos.y());
+    }
+
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return id of the ship on position (from 1 to number of ships), if position is out of ocean or empty return 0
+     */
+    public int getShipId(int x, int y) {
+        if ((y < 0 || y >= sizeVertical) || (x < 0 || x >= sizeHorizontal) || !board.isOccupied(x, y)) return 0;
+        return shipIds[y * sizeHorizontal + x];
+    }
+
+    /**
+     * @param cell cell index (y * sizeHorizontal + x), must be inside the ocean
+     * @return id of the ship on the cell (from 1 to number of ships), if the cell is empty return 0
+     */
+    public int getShipIdByCell(int cell) {
+        return shipIds[cell];
+    }
+
+    /**
+     * @param shipId id of the ship
+     * @return Ship, if there is no ship with such id return null
+     */
+    public Ship getShipById(int shipId) {
+        if (shipId < 1 || shipId > ships.size()) return null;
+        return ships.get(shipId - 1);
+    }
+
+    /**
+     * @return number of ships placed on the ocean
+     */
+    public int getShipsCount() {
+        return ships.size();
     }
 
     /**
@@ -90,164 +262,89 @@ public class Ocean {
      * @return ShipPosition
      */
     public ShipPosition tryPlaceShip(Ship shipToPlace, ShipPosition shipPosition) {
-        return switch (shipPosition.getDirection()) {
-            case RIGHT -> placeShipRight(shipToPlace, shipPosition);
-            case UP -> placeShipUp(shipToPlace, shipPosition);
-            case LEFT -> placeShipLeft(shipToPlace, shipPosition);
-            case DOWN -> placeShipDown(shipToPlace, shipPosition);
-        };
-    }
-
-    private boolean indexOutOfOcean(Point pos) {
-        return (pos.y() < 0 || pos.y() >= sizeVertical) || (pos.x() < 0 || pos.x() >= sizeHorizontal);
-    }
-
-    private boolean badIndexRange(Point startPos, Point endPos, ShipPosition.Direction direction) {
-        if (indexOutOfOcean(startPos) || indexOutOfOcean(endPos)) return true;
-
-        Point[] positionRange = Point.getRange(startPos, endPos, direction);
-        for (Point point : positionRange) {
-            switch (direction) {
-                case UP -> {
-                    // if this is the beginning of the ship, check below, down and right and down and left
-                    if (point.equals(startPos) && (getShipByPosition(point.getDown()) != null ||
-                            getShipByPosition(point.getDownAndLeft()) != null ||
-                            getShipByPosition(point.getDownAndRight()) != null))
-                        return true;
-
-                    // if this is the end of the ship, check up, up and to the right and up and to the left
-                    if (point.equals(endPos) && (getShipByPosition(point.getUp()) != null ||
-                            getShipByPosition(point.getUpAndRight()) != null ||
-                            getShipByPosition(point.getUpAndLeft()) != null))
-                        return true;
-
-                    // check left and right
-                    if (getShipByPosition(point.getLeft()) != null || getShipByPosition(point.getRight()) != null)
-                        return true;
-                }
-                case DOWN -> {
-                    // if this is the beginning of the ship, check up, up and to the right and up and to the left
-                    if (point.equals(startPos) && (getShipByPosition(point.getUp()) != null ||
-                            getShipByPosition(point.getUpAndRight()) != null ||
-                            getShipByPosition(point.getUpAndLeft()) != null))
-                        return true;
-
-                    // if this is the end of the ship, check below, down and right and down and left
-                    if (point.equals(endPos) && (getShipByPosition(point.getDown()) != null ||
-                            getShipByPosition(point.getDownAndLeft()) != null ||
-                            getShipByPosition(point.getDownAndRight()) != null))
-                        return true;
-
-                    // check left and right
-                    if (getShipByPosition(point.getLeft()) != null || getShipByPosition(point.getRight()) != null)
-                        return true;
-                }
-                case LEFT -> {
-                    // if this is the beginning of the ship, check right, right and down and right and up
-                    if (point.equals(startPos) && (getShipByPosition(point.getRight()) != null ||
-                            getShipByPosition(point.getUpAndRight()) != null ||
-                            getShipByPosition(point.getDownAndRight()) != null))
-                        return true;
-
-                    // if this is the end of the ship, check left, left and down and right and up
-                    if (point.equals(endPos) && (getShipByPosition(point.getLeft()) != null ||
-                            getShipByPosition(point.getUpAndLeft()) != null ||
-                            getShipByPosition(point.getDownAndLeft()) != null))
-                        return true;
-                    // check from above and below
-                    if (getShipByPosition(point.getUp()) != null || getShipByPosition(point.getDown()) != null)
-                        return true;
-                }
-                case RIGHT -> {
-                    // if this is the beginning of the ship, check left, left and down and right and up
-                    if (point.equals(startPos) && (getShipByPosition(point.getLeft()) != null ||
-                            getShipByPosition(point.getUpAndLeft()) != null ||
-                            getShipByPosition(point.getDownAndLeft()) != null))
-                        return true;
-
-                    // if this is the end of the ship, check right, right and down and right and up
-                    if (point.equals(endPos) && (getShipByPosition(point.getRight()) != null ||
-                            getShipByPosition(point.getUpAndRight()) != null ||
-                            getShipByPosition(point.getDownAndRight()) != null))
-                        return true;
-
-                    // check from above and below
-                    if (getShipByPosition(point.getUp()) != null || getShipByPosition(point.getDown()) != null)
-                        return true;
-                }
+        int length = shipToPlace.getLength();
+        int x = shipPosition.getX();
+        int y = shipPosition.getY();
+        // move start position to the left (upper) end of the ship
+        boolean horizontal = switch (shipPosition.getDirection()) {
+            case RIGHT -> true;
+            case LEFT -> {
+                x -= length - 1;
+                yield true;
             }
-        }
-        return false;
-    }
-
-    private ShipPosition placeShipRight(Ship shipToPlace, ShipPosition startPos) {
-        Point endPos = new Point(startPos.getX() + shipToPlace.getLength() - 1,
-                startPos.getY());
+            case DOWN -> false;
+            case UP -> {
+                y -= length - 1;
+                yield false;
+            }
+        };
 
-        if (badIndexRange(startPos.getPosition(), endPos, startPos.getDirection()))
+        if (!board.canPlace(x, y, length, horizontal))
             return null;
-
-        for (int i = startPos.getX(); i <= endPos.x(); i++) {
-            ocean[startPos.getY()][i] = shipToPlace;
-        }
-        return startPos;
+        placeShip(shipToPlace, x, y, horizontal);
+        return shipPosition;
     }
 
-    private ShipPosition placeShipLeft(Ship shipToPlace, ShipPosition startPos) {
-        Point endPos = new Point(startPos.getX() - shipToPlace.getLength() + 1,
-                startPos.getY());
-
-        if (badIndexRange(startPos.getPosition(), endPos, startPos.getDirection()))
-            return null;
-
-        for (int i = startPos.getX(); i >= endPos.x(); i--) {
-            ocean[startPos.getY()][i] = shipToPlace;
-        }
-        return startPos;
+    /**
+     * Place ship on the position if it is inside the ocean and doesn't touch other ships.
+     *
+     * @param ship       ship to place
+     * @param x          horizontal coordinate of the left (upper) end of the ship
+     * @param y          vertical coordinate of the left (upper) end of the ship
+     * @param horizontal direction of the ship
+     * @return true if ship has been placed
+     */
+    public boolean tryPlaceShip(Ship ship, int x, int y, boolean horizontal) {
+        if (!board.canPlace(x, y, ship.getLength(), horizontal))
+            return false;
+        placeShip(ship, x, y, horizontal);
+        return true;
     }
 
-    private ShipPosition placeShipUp(Ship shipToPlace, ShipPosition startPos) {
-        Point endPos = new Point(startPos.getX(),
-                startPos.getY() - shipToPlace.getLength() + 1);
-
-        if (badIndexRange(startPos.getPosition(), endPos, startPos.getDirection()))
-            return null;
-
-        for (int i = endPos.y(); i <= startPos.getY(); i++) {
-            ocean[i][startPos.getX()] = shipToPlace;
-        }
-        return startPos;
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return true if there is a ship on the cell
+     */
+    boolean isOccupied(int x, int y) {
+        return board.isOccupied(x, y);
     }
 
-    private ShipPosition placeShipDown(Ship shipToPlace, ShipPosition startPos) {
-        Point endPos = new Point(startPos.getX(),
-                startPos.getY() + shipToPlace.getLength() - 1);
-
-        if (badIndexRange(startPos.getPosition(), endPos, startPos.getDirection()))
-            return null;
+    /**
+     * @return copy of the occupancy bitboard
+     */
+    BitBoard copyBoard() {
+        return new BitBoard(board);
+    }
 
-        for (int i = startPos.getY(); i <= endPos.y(); i++) {
-            ocean[i][startPos.getX()] = shipToPlace;
+    /**
+     * Place ship without checking adjacency rules (position must be checked by caller).
+     *
+     * @param ship       ship to place
+     * @param x          horizontal coordinate of the left (upper) end of the ship
+     * @param y          vertical coordinate of the left (upper) end of the ship
+     * @param horizontal direction of the ship
+     */
+    void placeShip(Ship ship, int x, int y, boolean horizontal) {
+        ships.add(ship);
+        short shipId = (short) ships.size();
+        Point[] cells = new Point[ship.getLength()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = horizontal ? points.get(x + i, y) : points.get(x, y + i);
+            shipIds[cells[i].y() * sizeHorizontal + cells[i].x()] = shipId;
         }
-        return startPos;
+        shipCells.add(List.of(cells));
+        board.place(x, y, ship.getLength(), horizontal);
     }
 
     /**
      * get list of points which is occupied by ship
      *
-     * @param attackingShip ship
-     * @return list of points
-     */
-    public List<Point> getPointsOccupiedByShip(Ship attackingShip) {
-        List<Point> shipPoints = new ArrayList<>();
-        if (attackingShip != null) {
-            for (int i = 0; i < ocean.length; i++) {
-                for (int j = 0; j < ocean[0].length; j++) {
-                    if (attackingShip.equals(ocean[i][j]))
-                        shipPoints.add(new Point(j, i));
-                }
-            }
-        }
-        return shipPoints;
+     * @param shipId id of the ship
+     * @return unmodifiable list of points (empty if there is no ship with such id)
+     */
+    public List<Point> getPointsOccupiedByShip(int shipId) {
+        if (shipId < 1 || shipId > shipCells.size()) return List.of();
+        return shipCells.get(shipId - 1);
     }
 }
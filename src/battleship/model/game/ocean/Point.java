@@ -1,7 +1,5 @@
 package battleship.model.game.ocean;
 
-import java.util.Objects;
-
 public record Point(int x, int y) {
 
     /**
@@ -31,7 +29,8 @@ public record Point(int x, int y) {
     }
 
     private static int getLength(Point startPos, Point endPos) {
-        return (int) Math.sqrt(Math.pow(startPos.x() - endPos.x(), 2) + Math.pow(startPos.y() - endPos.y(), 2)) + 1;
+        // points are on one line (horizontal or vertical)
+        return Math.abs(startPos.x() - endPos.x()) + Math.abs(startPos.y() - endPos.y()) + 1;
     }
 
     /**
@@ -109,6 +108,6 @@ public record Point(int x, int y) {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 }
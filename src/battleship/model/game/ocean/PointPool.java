@@ -0,0 +1,117 @@
+package battleship.model.game.ocean;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared immutable points of the ocean of one size.
+ * Cell index is y * sizeHorizontal + x, neighbours of every cell are precomputed.
+ */
+public final class PointPool {
+    /**
+     * Neighbour directions (in order of the neighbours table).
+     */
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+    public static final int UP_AND_LEFT = 4;
+    public static final int UP_AND_RIGHT = 5;
+    public static final int DOWN_AND_LEFT = 6;
+    public static final int DOWN_AND_RIGHT = 7;
+    /**
+     * Number of neighbour directions.
+     */
+    public static final int DIRECTIONS = 8;
+
+    private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    private static final Map<Integer, PointPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int sizeHorizontal;
+    private final int sizeVertical;
+    private final Point[] points;
+    private final int[] neighbours;
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @return pool of points for the ocean of this size
+     */
+    public static PointPool of(int sizeHorizontal, int sizeVertical) {
+        return POOLS.computeIfAbsent(sizeHorizontal << 16 | sizeVertical,
+                key -> new PointPool(sizeHorizontal, sizeVertical));
+    }
+
+    private PointPool(int sizeHorizontal, int sizeVertical) {
+        this.sizeHorizontal = sizeHorizontal;
+        this.sizeVertical = sizeVertical;
+        points = new Point[sizeHorizontal * sizeVertical];
+        neighbours = new int[points.length * DIRECTIONS];
+        Arrays.fill(neighbours, -1);
+
+        for (int y = 0; y < sizeVertical; y++) {
+            for (int x = 0; x < sizeHorizontal; x++) {
+                int index = y * sizeHorizontal + x;
+                points[index] = new Point(x, y);
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    if (contains(x + DX[direction], y + DY[direction]))
+                        neighbours[index * DIRECTIONS + direction] = index + DY[direction] * sizeHorizontal + DX[direction];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of cells
+     */
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return true if point is inside the ocean
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < sizeHorizontal && y >= 0 && y < sizeVertical;
+    }
+
+    /**
+     * @param x horizontal coordinate (inside the ocean)
+     * @param y vertical coordinate (inside the ocean)
+     * @return cell index
+     */
+    public int indexOf(int x, int y) {
+        return y * sizeHorizontal + x;
+    }
+
+    /**
+     * @param index cell index
+     * @return shared point
+     */
+    public Point get(int index) {
+        return points[index];
+    }
+
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return shared point, or new point if it is out of the ocean
+     */
+    public Point get(int x, int y) {
+        return contains(x, y) ? points[indexOf(x, y)] : new Point(x, y);
+    }
+
+    /**
+     * @param index     cell index
+     * @param direction one of the neighbour directions (LEFT, RIGHT, ...)
+     * @return index of the neighbour cell, -1 if it is out of the ocean
+     */
+    public int getNeighbour(int index, int direction) {
+        return neighbours[index * DIRECTIONS + direction];
+    }
+}
@@ -0,0 +1,274 @@
+package battleship.model.game.ocean;
+
+import battleship.model.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sequential random placement: ships are placed from the longest to the shortest,
+ * every ship takes a position chosen uniformly among all positions which are still legal.
+ * <p>
+ * For every length the sampler keeps bit masks of legal starts of horizontal and vertical positions by rows
+ * and the number of legal positions. The position is picked by one draw: the row is found by the bit counts,
+ * then the set bit of the row. After the ship is placed, only the rows around it are counted again.
+ * If some ship has no legal position left, the attempt starts again: it is rare on the usual fleets,
+ * and after {@link #MAX_ATTEMPTS} attempts the caller falls back to the search of {@link ShipPlacer}.
+ * <p>
+ * Only every step is uniform, the layout as a whole is not uniform among all legal layouts:
+ * the probability of the layout is the product of 1 / (number of legal positions) of the steps,
+ * so layouts which leave fewer positions to the next ships are more likely (on small oceans its distance
+ * from the uniform distribution is the same as of the greedy placement, see LayoutUniformity in the benchmarks).
+ * Attempts which end without a legal position are thrown away, so the distribution is also conditioned
+ * on the success of the attempt.
+ * <p>
+ * {@link #findUniformLayout(List, int)} corrects the weight by rejection: the number of legal positions
+ * of every ship is never greater than on the initial ocean, so the position is drawn among as many indexes
+ * as on the initial ocean and the attempt is rejected if the index is not a legal position.
+ * Every sequence of positions then has the same probability (1 / product of the initial numbers),
+ * and every layout is reached by the same number of orders of ships of the same length.
+ */
+class SequentialSampler {
+    private static final int MAX_LENGTH = 5;
+    private static final int MAX_ATTEMPTS = 64;
+
+    private final RandomGenerator random;
+    private final int width;
+    private final int height;
+    private final BitBoard initial;
+    private BitBoard board;
+
+    /**
+     * Legal starts of horizontal positions by length and row.
+     */
+    private final int[][] horizontalStarts = new int[MAX_LENGTH + 1][];
+    /**
+     * Legal starts of vertical positions by length and row (one-cell ship has only horizontal positions).
+     */
+    private final int[][] verticalStarts = new int[MAX_LENGTH + 1][];
+    private final int[] legalCount = new int[MAX_LENGTH + 1];
+    private int attempts;
+    private int draws;
+    /**
+     * Product of the numbers of legal positions of the ships placed in the current attempt.
+     */
+    private double weight;
+
+    /**
+     * Number of indexes drawn for every length (null - only legal positions are drawn).
+     */
+    private int[] bounds;
+
+    private int[] placedSlots;
+    private Ship[] placedShips;
+
+    /**
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     */
+    SequentialSampler(Ocean ocean, RandomGenerator random) {
+        this.random = random;
+        width = ocean.getSizeHorizontal();
+        height = ocean.getSizeVertical();
+        initial = ocean.copyBoard();
+    }
+
+    /**
+     * Find the random layout of the ships without changing the ocean.
+     *
+     * @param ships list of ships to place (no longer than 5 cells)
+     * @return true if the layout has been found (see {@link #getPlacedSlot(int)} and {@link #getPlacedShip(int)})
+     */
+    boolean findLayout(List<Ship> ships) {
+        prepare(ships);
+        while (attempts < MAX_ATTEMPTS) {
+            ++attempts;
+            if (sample()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find the uniform random layout among all legal layouts of the ships without changing the ocean.
+     *
+     * @param ships       list of ships to place (no longer than 5 cells)
+     * @param maxAttempts maximum number of attempts
+     * @return true if the layout has been found (see {@link #getPlacedSlot(int)} and {@link #getPlacedShip(int)})
+     */
+    boolean findUniformLayout(List<Ship> ships, int maxAttempts) {
+        prepare(ships);
+        reset();
+        bounds = legalCount.clone();
+        while (attempts < maxAttempts) {
+            ++attempts;
+            if (sample()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Place the ships once (without new attempts) and weigh the layout for Knuth's estimator.
+     *
+     * @param ships list of ships to place (no longer than 5 cells)
+     * @return product of the numbers of legal positions of every ship, 0 if some ship has no legal position
+     */
+    double weigh(List<Ship> ships) {
+        prepare(ships);
+        ++attempts;
+        return sample() ? weight : 0;
+    }
+
+    /**
+     * @param ships list of ships to place (no longer than 5 cells)
+     * @return product of the numbers of legal positions of every ship on the initial ocean
+     * (no weight of {@link #weigh(List)} is greater)
+     */
+    double bound(List<Ship> ships) {
+        prepare(ships);
+        reset();
+        double bound = 1;
+        for (Ship ship : placedShips) {
+            bound *= legalCount[ship.getLength()];
+        }
+        return bound;
+    }
+
+    private void prepare(List<Ship> ships) {
+        List<Ship> order = new ArrayList<>(ships);
+        order.sort((first, second) -> second.getLength() - first.getLength());
+        placedSlots = new int[order.size()];
+        placedShips = order.toArray(new Ship[0]);
+        for (Ship ship : order) {
+            if (horizontalStarts[ship.getLength()] == null) {
+                horizontalStarts[ship.getLength()] = new int[height];
+                verticalStarts[ship.getLength()] = new int[height];
+            }
+        }
+    }
+
+    private void reset() {
+        board = new BitBoard(initial);
+        for (int length = 1; length <= MAX_LENGTH; length++) {
+            if (horizontalStarts[length] == null) continue;
+            legalCount[length] = 0;
+            Arrays.fill(horizontalStarts[length], 0);
+            Arrays.fill(verticalStarts[length], 0);
+            updateRows(length, 0, height - 1, 0, height - 1);
+        }
+    }
+
+    private boolean sample() {
+        reset();
+        weight = 1;
+
+        for (int i = 0; i < placedShips.length; i++) {
+            int length = placedShips[i].getLength();
+            if (legalCount[length] == 0) return false;
+            ++draws;
+            weight *= legalCount[length];
+            int index = random.nextInt(bounds == null ? legalCount[length] : bounds[length]);
+            if (index >= legalCount[length]) return false;
+            placedSlots[i] = select(length, index);
+
+            int cell = placedSlots[i] >> 1;
+            boolean vertical = (placedSlots[i] & 1) == 1;
+            int y = cell / width;
+            board.place(cell % width, y, length, !vertical);
+            // forbidden mask has been changed only on these rows
+            int top = Math.max(0, y - 1);
+            int bottom = Math.min(height - 1, (vertical ? y + length - 1 : y) + 1);
+            for (int l = 1; l <= MAX_LENGTH; l++) {
+                if (horizontalStarts[l] != null) updateRows(l, top, bottom, Math.max(0, top - l + 1), bottom);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count again legal starts of horizontal positions on the rows from top to bottom
+     * and of vertical positions on the rows from verticalTop to verticalBottom.
+     */
+    private void updateRows(int length, int top, int bottom, int verticalTop, int verticalBottom) {
+        int[] horizontal = horizontalStarts[length];
+        for (int y = top; y <= bottom; y++) {
+            int free = board.freeRow(y);
+            int starts = free;
+            for (int i = 1; i < length; i++) {
+                starts &= free >>> i;
+            }
+            legalCount[length] += Integer.bitCount(starts) - Integer.bitCount(horizontal[y]);
+            horizontal[y] = starts;
+        }
+        // one-cell ship has the same position in both directions
+        if (length == 1) return;
+
+        int[] vertical = verticalStarts[length];
+        for (int y = verticalTop; y <= verticalBottom; y++) {
+            int starts = 0;
+            if (y + length <= height) {
+                starts = board.freeRow(y);
+                for (int i = 1; i < length; i++) {
+                    starts &= board.freeRow(y + i);
+                }
+            }
+            legalCount[length] += Integer.bitCount(starts) - Integer.bitCount(vertical[y]);
+            vertical[y] = starts;
+        }
+    }
+
+    /**
+     * @param length length of the ship
+     * @param index  index of the legal position (less than the number of legal positions)
+     * @return position slot: cell * 2 + 1 if vertical
+     */
+    private int select(int length, int index) {
+        for (int y = 0; ; y++) {
+            int count = Integer.bitCount(horizontalStarts[length][y]);
+            if (index < count) return (y * width + nthBit(horizontalStarts[length][y], index)) * 2;
+            index -= count;
+
+            count = Integer.bitCount(verticalStarts[length][y]);
+            if (index < count) return (y * width + nthBit(verticalStarts[length][y], index)) * 2 + 1;
+            index -= count;
+        }
+    }
+
+    private static int nthBit(int bits, int index) {
+        for (int i = 0; i < index; i++) {
+            bits &= bits - 1;
+        }
+        return Integer.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return position slot of the ship: cell * 2 + 1 if vertical
+     */
+    int getPlacedSlot(int index) {
+        return placedSlots[index];
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return ship
+     */
+    Ship getPlacedShip(int index) {
+        return placedShips[index];
+    }
+
+    /**
+     * @return number of attempts
+     */
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return number of drawn positions of all attempts
+     */
+    int getDraws() {
+        return draws;
+    }
+}
@@ -0,0 +1,296 @@
+package battleship.model.game.ocean;
+
+import battleship.model.ships.Ship;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * Backtracking placement engine.
+ * On every step it takes the ship type with the fewest legal positions left (most constrained first)
+ * and tries its positions in random order. Legality is checked on a copy of the ocean bitboard,
+ * where cells occupied by placed ships and their neighbours form the forbidden mask.
+ * The ocean is changed only when the whole fleet has been placed.
+ * <p>
+ * Several placers can race on the same ocean (see {@link Ocean#parallelPlace}): every placer searches
+ * on its own copy of the bitboard and stops as soon as the shared cancel flag is set.
+ * <p>
+ * The search is bounded, so it may fail on the fleet which has layouts. Only the dense fleet on the empty ocean
+ * with the tables of the exact count ({@link UniformSampler#completions(List)}) is never reported as impossible
+ * if it has layouts.
+ */
+class ShipPlacer {
+    /**
+     * Maximum number of search steps in the first attempts.
+     */
+    private static final int MAX_STEPS = 4_000;
+    /**
+     * Every attempt starts the search again with new random order of positions.
+     * After this number of attempts the limit of steps is doubled on every attempt.
+     */
+    private static final int MAX_ATTEMPTS = 5;
+    /**
+     * Maximum number of search steps of all attempts, the placement fails when they are done.
+     */
+    private static final int MAX_TOTAL_STEPS = 1 << 20;
+
+    private final Ocean ocean;
+    private final RandomGenerator random;
+    private final int width;
+    private final int height;
+    private final BitBoard board;
+    /**
+     * Set when the search isn't needed anymore, null if the search cannot be cancelled.
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * Position slots (cell * 2 + 1 if vertical) in random order.
+     */
+    private int[] slots;
+
+    private Ship[][] shipsByType;
+    private int[] remaining;
+    /**
+     * Identical ships are placed in increasing order of slots, so the same layout isn't searched twice.
+     */
+    private int[] lowestSlot;
+    private int[] placedSlots;
+    private Ship[] placedShips;
+    private int steps;
+    private int maxSteps;
+    private int attempts;
+    private int totalSteps;
+
+    /**
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     */
+    ShipPlacer(Ocean ocean, RandomGenerator random) {
+        this(ocean, random, null);
+    }
+
+    /**
+     * @param ocean     ocean on which ships needs to be placed
+     * @param random    source of randomness
+     * @param cancelled flag which stops the search when it is set
+     */
+    ShipPlacer(Ocean ocean, RandomGenerator random, AtomicBoolean cancelled) {
+        this.ocean = ocean;
+        this.random = random;
+        this.cancelled = cancelled;
+        width = ocean.getSizeHorizontal();
+        height = ocean.getSizeVertical();
+        board = ocean.copyBoard();
+    }
+
+    /**
+     * Place list of ships on the ocean.
+     *
+     * @param ships list of ships to place
+     * @return true if all ships have been placed, otherwise false (ocean stays unchanged).
+     */
+    boolean place(List<Ship> ships) {
+        if (!findLayout(ships)) return false;
+        apply();
+        return true;
+    }
+
+    /**
+     * Place the found layout on the ocean.
+     */
+    void apply() {
+        for (int i = 0; i < placedSlots.length; i++) {
+            int cell = placedSlots[i] >> 1;
+            ocean.placeShip(placedShips[i], cell % width, cell / width, (placedSlots[i] & 1) == 0);
+        }
+    }
+
+    /**
+     * Find the layout of the ships without changing the ocean.
+     *
+     * @param ships list of ships to place
+     * @return true if the layout has been found (see {@link #getPlacedSlot(int)} and {@link #getPlacedShip(int)})
+     */
+    boolean findLayout(List<Ship> ships) {
+        groupByLength(ships);
+        if (!fitsByArea(ships)) return false;
+
+        placedSlots = new int[ships.size()];
+        placedShips = new Ship[ships.size()];
+        return search(ships);
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return position slot of the ship: cell * 2 + 1 if vertical
+     */
+    int getPlacedSlot(int index) {
+        return placedSlots[index];
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return ship
+     */
+    Ship getPlacedShip(int index) {
+        return placedShips[index];
+    }
+
+    private void groupByLength(List<Ship> ships) {
+        int maxLength = 0;
+        for (Ship ship : ships) {
+            maxLength = Math.max(maxLength, ship.getLength());
+        }
+        int[] counters = new int[maxLength + 1];
+        for (Ship ship : ships) {
+            ++counters[ship.getLength()];
+        }
+        shipsByType = new Ship[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            shipsByType[length] = new Ship[counters[length]];
+        }
+        remaining = new int[maxLength + 1];
+        for (Ship ship : ships) {
+            shipsByType[ship.getLength()][remaining[ship.getLength()]++] = ship;
+        }
+        lowestSlot = new int[maxLength + 1];
+    }
+
+    /**
+     * Ships with their neighbours never overlap, so every ship with the cells to the right and below it
+     * takes (length + 1) * 2 cells of the ocean extended by one row and one column.
+     */
+    private boolean fitsByArea(List<Ship> ships) {
+        long area = 0;
+        for (Ship ship : ships) {
+            area += (ship.getLength() + 1) * 2L;
+        }
+        return area <= (long) (width + 1) * (height + 1);
+    }
+
+    private void shuffleSlots() {
+        if (slots == null) {
+            slots = new int[width * height * 2];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = i;
+            }
+        }
+        for (int i = slots.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int slot = slots[i];
+            slots[i] = slots[j];
+            slots[j] = slot;
+        }
+    }
+
+    /**
+     * Random restarts cut the heavy tail of the search. If the first attempts haven't finished, the dense fleet
+     * on the empty ocean is drawn from the tables of the exact count if they are available (no layout in them
+     * means no layout at all). Otherwise the limit of steps is doubled on every attempt
+     * until {@link #MAX_TOTAL_STEPS} are done.
+     */
+    private boolean search(List<Ship> ships) {
+        maxSteps = MAX_STEPS;
+        for (int attempt = 0; totalSteps < MAX_TOTAL_STEPS && !isCancelled(); attempt++) {
+            if (attempt == MAX_ATTEMPTS) {
+                UniformSampler sampler = new UniformSampler(ocean, random);
+                LayoutCounter.Completions completions = sampler.completions(ships);
+                if (completions != null) {
+                    if (!sampler.sample(completions, ships)) return false;
+                    for (int i = 0; i < placedSlots.length; i++) {
+                        placedSlots[i] = sampler.getPlacedSlot(i);
+                        placedShips[i] = sampler.getPlacedShip(i);
+                    }
+                    return true;
+                }
+            }
+            if (attempt >= MAX_ATTEMPTS) maxSteps = Math.min(maxSteps * 2, MAX_TOTAL_STEPS - totalSteps);
+            shuffleSlots();
+            steps = 0;
+            ++attempts;
+            boolean found = search(0);
+            totalSteps += Math.min(steps, maxSteps);
+            if (found) return true;
+            // search stopped before the end of the steps means there is no layout at all
+            if (steps <= maxSteps) return false;
+        }
+        return false;
+    }
+
+    private boolean search(int depth) {
+        if (depth == placedSlots.length) return true;
+        if (++steps > maxSteps || isCancelled()) return false;
+
+        // choose the most constrained ship type
+        int bestLength = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int length = 1; length < remaining.length; length++) {
+            if (remaining[length] == 0) continue;
+            int count = board.countPlacements(length);
+            // not enough positions for the ships of this type
+            if (count < remaining[length]) return false;
+            if (count < bestCount) {
+                bestCount = count;
+                bestLength = length;
+            }
+        }
+
+        int previousLowest = lowestSlot[bestLength];
+        for (int i = previousLowest; i < slots.length; i++) {
+            if (!isLegal(slots[i], bestLength)) continue;
+
+            Ship ship = shipsByType[bestLength][--remaining[bestLength]];
+            placedSlots[depth] = slots[i];
+            placedShips[depth] = ship;
+            lowestSlot[bestLength] = i + 1;
+            markShip(slots[i], bestLength, true);
+
+            if (search(depth + 1)) return true;
+
+            markShip(slots[i], bestLength, false);
+            ++remaining[bestLength];
+            if (steps > maxSteps || isCancelled()) break;
+        }
+        lowestSlot[bestLength] = previousLowest;
+        return false;
+    }
+
+    /**
+     * @return number of search attempts
+     */
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return number of search steps of all attempts
+     */
+    int getSteps() {
+        return totalSteps;
+    }
+
+    private boolean isCancelled() {
+        return cancelled != null && cancelled.get();
+    }
+
+    private boolean isLegal(int slot, int length) {
+        boolean vertical = (slot & 1) == 1;
+        // one-cell ship has the same position in both directions
+        if (vertical && length == 1) return false;
+
+        int cell = slot >> 1;
+        return board.canPlace(cell % width, cell / width, length, !vertical);
+    }
+
+    private void markShip(int slot, int length, boolean place) {
+        int cell = slot >> 1;
+        boolean horizontal = (slot & 1) == 0;
+        if (place) {
+            board.place(cell % width, cell / width, length, horizontal);
+        } else {
+            board.remove(cell % width, cell / width, length, horizontal);
+        }
+    }
+}
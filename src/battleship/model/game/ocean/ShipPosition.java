@@ -1,8 +1,9 @@
 package battleship.model.game.ocean;
 
+import battleship.metrics.Metrics;
 import battleship.model.ships.Ship;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class ShipPosition {
     /**
@@ -14,13 +15,13 @@ public class ShipPosition {
 
     private static final Direction[] VALUES = Direction.values();
     private static final int SIZE = VALUES.length;
-    private static final Random RANDOM_DIRECTION = new Random();
 
     /**
+     * @param random source of randomness
      * @return random direction.
      */
-    public static Direction randomDirection() {
-        return VALUES[(RANDOM_DIRECTION.nextInt(SIZE))];
+    public static Direction randomDirection(RandomGenerator random) {
+        return VALUES[(random.nextInt(SIZE))];
     }
 
     /**
@@ -28,24 +29,27 @@ public class ShipPosition {
      *
      * @param ocean       ocean on which to place the ship
      * @param shipToPlace ship to place
+     * @param random      source of randomness
      * @return null if it's impossible, otherwise ship position.
      */
-    public static ShipPosition getRandomShipPosition(Ocean ocean, Ship shipToPlace) {
-        Random random = new Random();
+    public static ShipPosition getRandomShipPosition(Ocean ocean, Ship shipToPlace, RandomGenerator random) {
         //
         int maxAttempts = ocean.getSizeHorizontal() * ocean.getSizeVertical() * 16;
         //
         int attempts = 0;
         while (attempts++ < maxAttempts) {
 
-            Point point = new Point(random.nextInt(0, ocean.getSizeHorizontal() - 1),
-                    random.nextInt(0, ocean.getSizeVertical() - 1));
-            Direction dir = randomDirection();
+            Point point = new Point(random.nextInt(0, ocean.getSizeHorizontal()),
+                    random.nextInt(0, ocean.getSizeVertical()));
+            Direction dir = randomDirection(random);
 
             ShipPosition pos = ocean.tryPlaceShip(shipToPlace, new ShipPosition(point, dir));
-            if (pos != null)
+            if (pos != null) {
+                if (Metrics.ENABLED) Metrics.randomPosition(attempts, true);
                 return pos;
+            }
         }
+        if (Metrics.ENABLED) Metrics.randomPosition(maxAttempts, false);
         return null;
     }
 
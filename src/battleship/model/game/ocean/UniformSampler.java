@@ -0,0 +1,245 @@
+package battleship.model.game.ocean;
+
+import battleship.model.ships.Ship;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random placement: every legal layout of the fleet has the same probability
+ * (identical ships are not distinguished).
+ * <p>
+ * If the ocean is empty and its shorter side is small enough, the layout is drawn cell by cell
+ * with the numbers of completions of the transfer-matrix count ({@link LayoutCounter.Completions}),
+ * without rejected draws. Tables and decisions below are cached for up to {@link #MAX_CACHED_PLANS} fleets and oceans;
+ * they are built once by the first thread which needs them, other configurations are not blocked meanwhile.
+ * Otherwise the ships are placed one by one with the rejection of {@link SequentialSampler}.
+ * The expected number of its attempts is the bound of the weight divided by the number of ordered layouts
+ * (counted exactly if it is cheap, otherwise estimated with the fixed seed, so the plan is the same on every machine):
+ * if it is greater than {@link #MAX_EXPECTED_ATTEMPTS}, the layout is not searched at all,
+ * otherwise the search stops after {@link #MAX_REJECTION_ATTEMPTS} attempts.
+ */
+class UniformSampler {
+    private static final int MAX_LENGTH = 5;
+    /**
+     * Maximum number of stored completion counts of one table (8 bytes each).
+     */
+    private static final long MAX_TABLE_ENTRIES = 1 << 22;
+    private static final int MAX_CACHED_PLANS = 8;
+    private static final int MAX_EXPECTED_ATTEMPTS = 1 << 10;
+    private static final int MAX_REJECTION_ATTEMPTS = 1 << 16;
+    /**
+     * Maximum number of numbers of all steps of the exact count which decides if the rejection is used.
+     */
+    private static final long MAX_COUNT_ENTRIES = 1 << 25;
+    private static final int ESTIMATE_SAMPLES = 1 << 12;
+    private static final Map<String, CompletableFuture<LayoutCounter.Completions>> COMPLETIONS =
+            new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Boolean>> REJECTIONS = new ConcurrentHashMap<>();
+
+    private final Ocean ocean;
+    private final RandomGenerator random;
+    private int attempts;
+    private int draws;
+
+    private int[] placedSlots;
+    private Ship[] placedShips;
+
+    /**
+     * @param ocean  ocean on which ships needs to be placed
+     * @param random source of randomness
+     */
+    UniformSampler(Ocean ocean, RandomGenerator random) {
+        this.ocean = ocean;
+        this.random = random;
+    }
+
+    /**
+     * Find the uniform random layout of the ships without changing the ocean.
+     *
+     * @param ships list of ships to place (no longer than 5 cells)
+     * @return true if the layout has been found (see {@link #getPlacedSlot(int)} and {@link #getPlacedShip(int)})
+     */
+    boolean findLayout(List<Ship> ships) {
+        LayoutCounter.Completions completions = completions(ships);
+        if (completions != null) return sample(completions, ships);
+        if (ocean.getShipsCount() == 0 && !rejection(ships)) return false;
+
+        SequentialSampler sampler = new SequentialSampler(ocean, random);
+        boolean placed = sampler.findUniformLayout(ships, MAX_REJECTION_ATTEMPTS);
+        attempts = sampler.getAttempts();
+        draws = sampler.getDraws();
+        if (!placed) return false;
+        placedSlots = new int[ships.size()];
+        placedShips = new Ship[ships.size()];
+        for (int i = 0; i < ships.size(); i++) {
+            placedSlots[i] = sampler.getPlacedSlot(i);
+            placedShips[i] = sampler.getPlacedShip(i);
+        }
+        return true;
+    }
+
+    /**
+     * @param ships list of ships to place (no longer than 5 cells)
+     * @return cached or new tables of the exact count, null if the ocean isn't empty or the tables are too big
+     */
+    LayoutCounter.Completions completions(List<Ship> ships) {
+        if (ocean.getShipsCount() != 0) return null;
+        int[] counters = counters(ships);
+        return cached(COMPLETIONS, key(counters), () -> LayoutCounter.completions(
+                ocean.getSizeHorizontal(), ocean.getSizeVertical(), counters, MAX_TABLE_ENTRIES));
+    }
+
+    /**
+     * Draw the layout of the ships from the tables of the exact count without changing the ocean.
+     *
+     * @param completions tables of the fleet on this ocean (see {@link #completions(List)})
+     * @param ships       list of ships to place (no longer than 5 cells)
+     * @return true if the layout has been found, false if there is no legal layout
+     */
+    boolean sample(LayoutCounter.Completions completions, List<Ship> ships) {
+        int width = ocean.getSizeHorizontal();
+        int height = ocean.getSizeVertical();
+        attempts = 1;
+        draws = width * height;
+        boolean[] occupied = new boolean[width * height];
+        if (!completions.sample(random, occupied)) return false;
+        extract(ships, occupied, width, height);
+        return true;
+    }
+
+    /**
+     * @return true if the rejection is expected to find the layout on the empty ocean (cached)
+     */
+    private boolean rejection(List<Ship> ships) {
+        int width = ocean.getSizeHorizontal();
+        int height = ocean.getSizeVertical();
+        int[] counters = counters(ships);
+        return cached(REJECTIONS, key(counters), () -> {
+            // identical ships are placed in any order
+            double orders = 1;
+            for (int counter : counters) {
+                for (int i = 2; i <= counter; i++) {
+                    orders *= i;
+                }
+            }
+            BigInteger count = LayoutCounter.count(width, height, counters, MAX_COUNT_ENTRIES);
+            double layouts = count != null ? count.doubleValue() :
+                    LayoutCounter.estimate(width, height, counters, ESTIMATE_SAMPLES, 0).layouts();
+            double bound = new SequentialSampler(ocean, random).bound(ships);
+            return layouts * orders * MAX_EXPECTED_ATTEMPTS >= bound;
+        });
+    }
+
+    /**
+     * Value of the cache, built by the first thread which needs it, the others wait for its future
+     * (other keys are not blocked meanwhile).
+     */
+    private static <T> T cached(Map<String, CompletableFuture<T>> cache, String key, Supplier<T> builder) {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> cached = cache.putIfAbsent(key, created);
+        if (cached != null) return cached.join();
+
+        try {
+            created.complete(builder.get());
+        } catch (RuntimeException | Error exception) {
+            cache.remove(key, created);
+            created.completeExceptionally(exception);
+            throw exception;
+        }
+        for (String other : cache.keySet()) {
+            if (cache.size() <= MAX_CACHED_PLANS) break;
+            if (!other.equals(key)) cache.remove(other);
+        }
+        return created.join();
+    }
+
+    /**
+     * @return number of ships of every type (from Carrier to Submarine)
+     */
+    private static int[] counters(List<Ship> ships) {
+        int[] counters = new int[MAX_LENGTH];
+        for (Ship ship : ships) {
+            ++counters[MAX_LENGTH - ship.getLength()];
+        }
+        return counters;
+    }
+
+    private String key(int[] counters) {
+        return ocean.getSizeHorizontal() + "x" + ocean.getSizeVertical() + ":" + Arrays.toString(counters);
+    }
+
+    /**
+     * Find the ships of the layout on the occupied cells (ships don't touch each other): the ship starts
+     * on the cell without occupied cells to the left and above, and goes to the right or down.
+     */
+    private void extract(List<Ship> ships, boolean[] occupied, int width, int height) {
+        List<Deque<Ship>> byLength = new ArrayList<>();
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byLength.add(new ArrayDeque<>());
+        }
+        for (Ship ship : ships) {
+            byLength.get(ship.getLength()).add(ship);
+        }
+
+        placedSlots = new int[ships.size()];
+        placedShips = new Ship[ships.size()];
+        int placed = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                if (!occupied[cell] || x > 0 && occupied[cell - 1] || y > 0 && occupied[cell - width]) continue;
+                boolean vertical = x + 1 == width || !occupied[cell + 1];
+                int length = 1;
+                if (vertical) {
+                    while (y + length < height && occupied[cell + length * width]) ++length;
+                } else {
+                    while (x + length < width && occupied[cell + length]) ++length;
+                }
+                // one-cell ship is horizontal as in the other samplers
+                placedSlots[placed] = cell * 2 + (vertical && length > 1 ? 1 : 0);
+                placedShips[placed] = byLength.get(length).remove();
+                ++placed;
+            }
+        }
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return position slot of the ship: cell * 2 + 1 if vertical
+     */
+    int getPlacedSlot(int index) {
+        return placedSlots[index];
+    }
+
+    /**
+     * @param index index of the ship in the found layout
+     * @return ship
+     */
+    Ship getPlacedShip(int index) {
+        return placedShips[index];
+    }
+
+    /**
+     * @return number of attempts
+     */
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return number of drawn positions or cells of all attempts
+     */
+    int getDraws() {
+        return draws;
+    }
+}
@@ -1,6 +1,7 @@
 package battleship.model.game.user;
 
 import battleship.model.game.AttackReport;
+import battleship.model.game.Game;
 
 public interface StatusChangedListener {
     /**
@@ -9,4 +10,19 @@ public interface StatusChangedListener {
      * @param report attacking report
      */
     void onStatusChanged(AttackReport report);
+
+    /**
+     * method to notify listener that status has been changed by salvo
+     * (by default every shot is reported separately).
+     *
+     * @param game    game in which salvo was fired
+     * @param cells   indexes of attacked cells
+     * @param results packed shot results
+     * @param count   number of shots
+     */
+    default void onSalvoStatusChanged(Game game, int[] cells, int[] results, int count) {
+        for (int i = 0; i < count; i++) {
+            onStatusChanged(game.getAttackReport(game.getPoint(cells[i]), results[i]));
+        }
+    }
 }
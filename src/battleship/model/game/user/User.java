@@ -1,12 +1,15 @@
 package battleship.model.game.user;
 
+import battleship.metrics.Metrics;
 import battleship.model.game.AttackReport;
 import battleship.model.game.FiringMode;
 import battleship.model.game.Game;
+import battleship.model.game.ShotResult;
 import battleship.model.game.ocean.Point;
 import battleship.model.ships.Ship;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -50,6 +53,34 @@ public class User implements StatusChangedListener {
         return currentSession.hitOnPlace(position, mode);
     }
 
+    /**
+     * Hit on place in current game session without allocation.
+     *
+     * @param x    horizontal coordinate
+     * @param y    vertical coordinate
+     * @param mode firing mode
+     * @return packed shot result (see {@link battleship.model.game.ShotResult})
+     * @throws IllegalArgumentException if firing mode = torpedo and there is no available torpedo.
+     */
+    public int hitOnPlace(int x, int y, FiringMode mode) throws IllegalArgumentException {
+        ++actionsCounter;
+        return currentSession.hitOnPlace(x, y, mode);
+    }
+
+    /**
+     * Fire salvo in current game session.
+     *
+     * @param cells       indexes of cells to attack (y * horizontal size + x)
+     * @param firingModes firing mode of every shot
+     * @param results     array to write packed shot results
+     * @param count       number of shots
+     * @throws IllegalArgumentException if any cell is out of the ocean or there are not enough torpedoes.
+     */
+    public void hitOnPlaces(int[] cells, FiringMode[] firingModes, int[] results, int count) throws IllegalArgumentException {
+        currentSession.hitOnPlaces(cells, firingModes, results, count);
+        actionsCounter += count;
+    }
+
     /**
      * @return number of actions.
      */
@@ -57,6 +88,35 @@ public class User implements StatusChangedListener {
         return actionsCounter;
     }
 
+    /**
+     * @return state of the user.
+     */
+    public UserState getActualState() {
+        return actualState;
+    }
+
+    /**
+     * (for recovery ship mode only)
+     *
+     * @return unmodifiable list of the last attacking reports, which can be canceled.
+     */
+    public List<AttackReport> getLastReports() {
+        return Collections.unmodifiableList(lastReports);
+    }
+
+    /**
+     * Restore state of the saved game.
+     *
+     * @param actionsCounter number of actions
+     * @param state          state of the user
+     * @param reports        last attacking reports (for recovery ship mode)
+     */
+    public void restoreState(int actionsCounter, UserState state, List<AttackReport> reports) {
+        this.actionsCounter = actionsCounter;
+        actualState = state;
+        lastReports = new ArrayList<>(reports);
+    }
+
     /**
      * @return current game session.
      */
@@ -99,6 +159,38 @@ public class User implements StatusChangedListener {
         }
     }
 
+    /**
+     * (for recovery ship mode only) the whole salvo is one turn:
+     * ships attacked in previous turns and not hit by this salvo are recovered,
+     * ships hit by this salvo and not sunk have to be hit by the next salvo.
+     *
+     * @param game    game in which salvo was fired
+     * @param cells   indexes of attacked cells
+     * @param results packed shot results
+     * @param count   number of shots
+     */
+    @Override
+    public void onSalvoStatusChanged(Game game, int[] cells, int[] results, int count) {
+        List<AttackReport> salvoReports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (ShotResult.getResult(results[i]) != AttackReport.HitResult.MISS)
+                salvoReports.add(game.getAttackReport(game.getPoint(cells[i]), results[i]));
+        }
+
+        List<AttackReport> missedShips = lastReports.stream()
+                .filter(last -> salvoReports.stream().noneMatch(report -> report.getShip().equals(last.getShip())))
+                .collect(Collectors.toList());
+        if (missedShips.size() > 0) {
+            undoActions(missedShips);
+            lastReports.removeAll(missedShips);
+        }
+
+        lastReports.addAll(salvoReports);
+        // sunk ships cannot be recovered
+        lastReports.removeIf(report -> report.getShip().getHealth() == 0);
+        actualState = lastReports.isEmpty() ? UserState.GENERAL : UserState.ATTACKING_SHIP;
+    }
+
     private boolean lastShipIsEqualToCurrent(Ship ship) {
         if (ship == null) return false;
         if (lastReports.size() < 1) return false;
@@ -110,16 +202,20 @@ public class User implements StatusChangedListener {
         if (lastReports.size() > 0) {
             // remove duplicated attacks
             lastReports = new ArrayList<>(new LinkedHashSet<>(lastReports));
+            undoActions(lastReports);
+        }
+    }
 
-            // restore health fleet in amount of the lastReports list size
-            currentSession.restorePreviousHealthFleet(lastReports.size());
+    private void undoActions(List<AttackReport> reports) {
+        // restore health fleet in amount of the reports list size
+        currentSession.restorePreviousHealthFleet(reports.size());
 
-            // restore ship health
-            lastReports.get(0).getShip().restoreHealthInRecoveryMode();
+        // restore ships health
+        reports.stream().map(AttackReport::getShip).distinct().forEach(Ship::restoreHealthInRecoveryMode);
 
-            // update points to recover (controller will update view if points not null)
-            List<Point> pointsToRecover = lastReports.stream().map(AttackReport::getPosition).collect(Collectors.toList());
-            currentSession.updatePointsToRecover(pointsToRecover);
-        }
+        // update points to recover (controller will update view if points not null)
+        List<Point> pointsToRecover = reports.stream().map(AttackReport::getPosition).collect(Collectors.toList());
+        currentSession.updatePointsToRecover(pointsToRecover);
+        if (Metrics.ENABLED) Metrics.rollback(pointsToRecover.size(), currentSession.getFleetHealth());
     }
 }
@@ -20,15 +20,34 @@ public abstract class Ship {
      * @return healthReport with health remaining and power(health) of attack.
      */
     public HealthReport hitTheShip(FiringMode firingMode) {
+        int scoreByHit = hit(firingMode);
+        return new HealthReport(health, scoreByHit);
+    }
+
+    /**
+     * Hit the ship with firing mode (without allocation).
+     *
+     * @param firingMode if TORPEDO_FIRING_MODE -> ship immediately get sunk. if GENERAL_FIRING_MODE -> health--.
+     * @return power(health) of attack.
+     */
+    public int hit(FiringMode firingMode) {
         if (firingMode == FiringMode.TORPEDO_FIRING_MODE) {
             int healthRemaining = health;
             health = 0;
-            return new HealthReport(health, healthRemaining);
+            return healthRemaining;
         }
-        if (health > 0)
-            return new HealthReport(--health, 1);
-        else
-            return new HealthReport(0, 0);
+        if (health > 0) {
+            --health;
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return health remaining.
+     */
+    public int getHealth() {
+        return health;
     }
 
     /**
@@ -42,6 +61,34 @@ public abstract class Ship {
      */
     public abstract void restoreHealthInRecoveryMode();
 
+    /**
+     * Set health of the ship (restoring saved game).
+     *
+     * @param health health remaining (from 0 to length)
+     * @throws IllegalArgumentException if health is out of range
+     */
+    public void restoreHealth(int health) throws IllegalArgumentException {
+        if (health < 0 || health > getLength())
+            throw new IllegalArgumentException("Incorrect health of " + this + ": " + health);
+        this.health = health;
+    }
+
+    /**
+     * @param length length of the ship (from 1 to 5)
+     * @return new ship of the type with this length
+     * @throws IllegalArgumentException if there is no ship type with this length
+     */
+    public static Ship createByLength(int length) throws IllegalArgumentException {
+        return switch (length) {
+            case 5 -> new Carrier();
+            case 4 -> new Battleship();
+            case 3 -> new Cruiser();
+            case 2 -> new Destroyer();
+            case 1 -> new Submarine();
+            default -> throw new IllegalArgumentException("There is no ship with length " + length);
+        };
+    }
+
     /**
      * Converts input integers, where these numbers are listed in the order
      * which corresponds to ship types size, to list of ships.
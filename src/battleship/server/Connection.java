@@ -0,0 +1,292 @@
+package battleship.server;
+
+import battleship.controller.Command;
+import battleship.controller.CommandParser;
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Client connection of the game server with its own game session.
+ * Commands are executed line by line straight from the input buffer,
+ * responses are written into the output buffer (one line per command, the board ends with "END" line).
+ * Buffers are created once per connection.
+ * <p>
+ * New game is created by the placement pool: until it is created, the next lines are not executed
+ * and the connection isn't read, then the event loop calls {@link #completeNewGame()}.
+ */
+final class Connection implements Appendable {
+    private static final int INPUT_SIZE = 4096;
+    private static final int OUTPUT_SIZE = 8192;
+    private static final int MAX_ARGUMENTS = 10;
+    private static final String HELP = "Commands: new <horizontal size> <vertical size> <Carriers> <Battleships>" +
+            " <Cruisers> <Destroyers> <Submarines> (optional: <torpedoes> <recovery mode: 1 / 0>)," +
+            " (optional: \"T\") <x> <y>, board, exit";
+
+    private final SocketChannel channel;
+    private final RandomGenerator seeds;
+    private final PlacementExecutor placements;
+    /**
+     * Notifies the event loop that the new game has been created or has failed (called from any thread).
+     */
+    private final Runnable onCreated;
+    private final ByteBuffer in = ByteBuffer.allocate(INPUT_SIZE);
+    /**
+     * Output buffer in write mode (grows if one read produces more output).
+     */
+    private ByteBuffer out = ByteBuffer.allocate(OUTPUT_SIZE);
+    private final Command command = new Command();
+    private final int[] arguments = new int[MAX_ARGUMENTS];
+    private GameSession session;
+    /**
+     * New game which is being created, null if there is none.
+     */
+    private CompletableFuture<GameSession> creating;
+    private boolean closing;
+
+    /**
+     * @param channel    client channel
+     * @param seeds      source of seeds of new games (used only by the event loop of the connection)
+     * @param placements pool which creates new games
+     * @param onCreated  notification of the event loop when the new game is created or has failed
+     */
+    Connection(SocketChannel channel, RandomGenerator seeds, PlacementExecutor placements, Runnable onCreated) {
+        this.channel = channel;
+        this.seeds = seeds;
+        this.placements = placements;
+        this.onCreated = onCreated;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Read available data and execute all complete lines.
+     *
+     * @return false if the client has closed the connection
+     * @throws IOException if channel cannot be read
+     */
+    boolean read() throws IOException {
+        if (channel.read(in) < 0) return false;
+        executeLines();
+        return true;
+    }
+
+    /**
+     * Execute complete lines of the input until the new game is being created.
+     */
+    private void executeLines() {
+        byte[] data = in.array();
+        int end = in.position();
+        int start = 0;
+        for (int i = 0; i < end && !closing && creating == null; i++) {
+            if (data[i] != '\n') continue;
+            int length = i - start;
+            if (length > 0 && data[i - 1] == '\r') --length;
+            execute(data, start, length);
+            start = i + 1;
+        }
+        if (closing) {
+            in.clear();
+        } else if (start == 0 && end == data.length && creating == null) {
+            error("line too long");
+            in.clear();
+        } else {
+            System.arraycopy(data, start, data, 0, end - start);
+            in.position(end - start);
+        }
+    }
+
+    /**
+     * Reply to the created new game and execute the lines received meanwhile (called by the event loop).
+     */
+    void completeNewGame() {
+        if (creating == null || !creating.isDone()) return;
+        try {
+            session = creating.join();
+            append("OK ").append(session.getFleetHealth()).append(' ').append(session.getAvailableTorpedo())
+                    .append('\n');
+        } catch (CompletionException | CancellationException ex) {
+            error(PlacementExecutor.errorMessage(ex));
+        }
+        creating = null;
+        executeLines();
+    }
+
+    /**
+     * @return true if the new game is being created (the connection must not be read)
+     */
+    boolean isCreatingGame() {
+        return creating != null;
+    }
+
+    /**
+     * Write pending output.
+     *
+     * @return true if all output has been written
+     * @throws IOException if channel cannot be written
+     */
+    boolean write() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        if (out.position() > 0) return false;
+        // don't keep the grown buffer for the idle connection
+        if (out.capacity() > OUTPUT_SIZE) out = ByteBuffer.allocate(OUTPUT_SIZE);
+        return true;
+    }
+
+    boolean hasPendingOutput() {
+        return out.position() > 0;
+    }
+
+    /**
+     * @return true if connection must be closed when all output is written
+     */
+    boolean isClosing() {
+        return closing;
+    }
+
+    private void execute(byte[] data, int offset, int length) {
+        if (CommandParser.startsWithWord(data, offset, length, "new")) {
+            newGame(CommandParser.parseArguments(data, offset, length, arguments));
+            return;
+        }
+        if (CommandParser.startsWithWord(data, offset, length, "board")) {
+            board();
+            return;
+        }
+
+        CommandParser.parse(data, offset, length, command);
+        switch (command.getType()) {
+            case EMPTY -> {
+            }
+            case EXIT -> {
+                append("BYE\n");
+                closing = true;
+            }
+            case HELP -> append(HELP).append('\n');
+            case INVALID -> error("incorrect command format");
+            case SHOT -> shot(command.getX(), command.getY(), command.getMode());
+        }
+    }
+
+    private void newGame(int count) {
+        if (count != 7 && count != 8 && count != 9) {
+            error("incorrect command format");
+            return;
+        }
+        int torpedoes = count > 7 ? arguments[7] : 0;
+        boolean recoveryMode = count > 8 && arguments[8] == 1;
+        int sizeHorizontal = arguments[0];
+        int sizeVertical = arguments[1];
+        int[] counters = Arrays.copyOfRange(arguments, 2, 7);
+        try {
+            GameSession.checkCounters(counters);
+            GameSession.checkTorpedoes(torpedoes);
+            long seed = seeds.nextLong();
+            // ships are placed off the event loop, the reply is written by completeNewGame
+            creating = placements.create(() -> new GameSession(sizeHorizontal, sizeVertical, counters, torpedoes,
+                    recoveryMode, seed));
+        } catch (RuntimeException ex) {
+            error(PlacementExecutor.errorMessage(ex));
+            return;
+        }
+        creating.whenComplete((created, exception) -> onCreated.run());
+    }
+
+    private void shot(int x, int y, FiringMode mode) {
+        if (session == null) {
+            error("no game, use: new <horizontal size> <vertical size> <Carriers> <Battleships> <Cruisers>" +
+                    " <Destroyers> <Submarines>");
+            return;
+        }
+        AttackReport report;
+        try {
+            report = session.shoot(x, y, mode);
+        } catch (RuntimeException ex) {
+            error(ex.getMessage());
+            return;
+        }
+
+        append(report.getResult().name()).append(' ').append(report.getFleetHealthRemaining());
+        if (report.getResult() == AttackReport.HitResult.SUNK) {
+            append(' ').append(report.getShip().toString());
+        }
+        if (session.getLastRecovered() > 0) {
+            append(" RECOVERED ").append(session.getLastRecovered());
+        }
+        if (session.isOver()) {
+            append(" WIN ").append(session.getShots());
+        }
+        append('\n');
+    }
+
+    private void board() {
+        if (session == null) {
+            error("no game");
+            return;
+        }
+        session.getOceanView().printOcean(this);
+        append("END\n");
+    }
+
+    private void error(String message) {
+        append("ERR ").append(message).append('\n');
+    }
+
+    @Override
+    public Connection append(CharSequence sequence) {
+        return append(sequence, 0, sequence.length());
+    }
+
+    @Override
+    public Connection append(CharSequence sequence, int start, int end) {
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            out.put((byte) sequence.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Connection append(char symbol) {
+        ensureCapacity(1);
+        out.put((byte) symbol);
+        return this;
+    }
+
+    private Connection append(int value) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int i = value; i >= 10; i /= 10) digits++;
+        ensureCapacity(digits);
+        int position = out.position() + digits;
+        for (int i = position - 1; i >= out.position(); i--) {
+            out.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(position);
+        return this;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (out.remaining() >= bytes) return;
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+        out.flip();
+        buffer.put(out);
+        out = buffer;
+    }
+}
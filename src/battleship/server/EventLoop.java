@@ -0,0 +1,177 @@
+package battleship.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Selector loop which serves its connections on one thread.
+ * While the connection has pending output it isn't read, so slow clients don't make buffers grow.
+ * New games are created by the placement pool, the connection isn't read until its game is created.
+ */
+final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final RandomGenerator seeds;
+    private final AtomicInteger connections;
+    private final PlacementExecutor placements;
+    private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+    /**
+     * Keys of the connections which new games have been created or have failed.
+     */
+    private final Queue<SelectionKey> created = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param seeds       source of seeds of new games (used only by this loop)
+     * @param connections counter of open connections of the server
+     * @param placements  pool which creates new games
+     * @throws UncheckedIOException if selector cannot be opened
+     */
+    EventLoop(RandomGenerator seeds, AtomicInteger connections, PlacementExecutor placements)
+            throws UncheckedIOException {
+        this.seeds = seeds;
+        this.connections = connections;
+        this.placements = placements;
+        try {
+            selector = Selector.open();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Add accepted connection to this loop (may be called from any thread).
+     *
+     * @param channel accepted channel
+     */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Stop the loop and close its connections.
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerAccepted();
+                completeCreated();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    process(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException exception) {
+            System.out.println("Event loop has been stopped: " + exception.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // nothing to do on shutdown
+            }
+        }
+    }
+
+    private void registerAccepted() {
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, seeds, placements, () -> {
+                    created.add(key);
+                    selector.wakeup();
+                }));
+                connections.incrementAndGet();
+            } catch (IOException exception) {
+                closeChannel(channel);
+            }
+        }
+    }
+
+    private void completeCreated() {
+        SelectionKey key;
+        while ((key = created.poll()) != null) {
+            if (!key.isValid()) continue;
+            Connection connection = (Connection) key.attachment();
+            try {
+                connection.completeNewGame();
+                update(key, connection);
+            } catch (IOException exception) {
+                close(key);
+            } catch (RuntimeException exception) {
+                System.out.println("Connection has been closed: " + exception);
+                close(key);
+            }
+        }
+    }
+
+    private void process(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable() && !connection.read()) {
+                close(key);
+                return;
+            }
+            update(key, connection);
+        } catch (IOException exception) {
+            close(key);
+        } catch (RuntimeException exception) {
+            // failure of one connection must not stop the loop with all its connections
+            System.out.println("Connection has been closed: " + exception);
+            close(key);
+        }
+    }
+
+    /**
+     * Write pending output and choose the operations of the connection.
+     */
+    private void update(SelectionKey key, Connection connection) throws IOException {
+        if (connection.hasPendingOutput() && !connection.write()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+        if (connection.isClosing()) {
+            close(key);
+            return;
+        }
+        key.interestOps(connection.isCreatingGame() ? 0 : SelectionKey.OP_READ);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        if (key.attachment() instanceof Connection connection) {
+            closeChannel(connection.getChannel());
+            connections.decrementAndGet();
+        }
+    }
+
+    private static void closeChannel(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // channel is closed anyway
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package battleship.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TCP game server with line based text protocol. Every connection hosts its own game session.
+ * Connections are accepted by one thread and distributed between a few selector event loops.
+ * Ships of new games are placed by the bounded pool of {@link PlacementExecutor}, not by the event loops.
+ * <p>
+ * Commands (one per line):
+ * new &lt;horizontal size&gt; &lt;vertical size&gt; &lt;Carriers&gt; &lt;Battleships&gt; &lt;Cruisers&gt;
+ * &lt;Destroyers&gt; &lt;Submarines&gt; [torpedoes] [recovery mode: 1 / 0] - "OK &lt;fleet health&gt; &lt;torpedoes&gt;";
+ * "x y" or "T x y" - "&lt;MISS / HIT / SUNK&gt; &lt;fleet health&gt; [ship] [RECOVERED n] [WIN shots]";
+ * board - ocean view and "END"; help; exit - "BYE". Errors are "ERR &lt;message&gt;".
+ */
+public class GameServer implements Closeable {
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Thread[] threads;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final PlacementExecutor placements;
+    private Thread acceptor;
+
+    /**
+     * @param port       port to listen (0 - any free port)
+     * @param eventLoops number of event loops
+     * @param seed       seed of the sequence of games layouts
+     * @throws IOException              if port cannot be bound
+     * @throws IllegalArgumentException if number of event loops is less than 1
+     */
+    public GameServer(int port, int eventLoops, long seed) throws IOException {
+        if (eventLoops < 1)
+            throw new IllegalArgumentException("Number of event loops must be positive");
+        SplittableRandom seeds = new SplittableRandom(seed);
+        placements = new PlacementExecutor(Runtime.getRuntime().availableProcessors(),
+                PlacementExecutor.DEFAULT_TIMEOUT_MILLIS);
+        loops = new EventLoop[eventLoops];
+        threads = new Thread[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            loops[i] = new EventLoop(seeds.split(), connections, placements);
+            threads[i] = new Thread(loops[i], "battleship-loop-" + i);
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+    }
+
+    /**
+     * Start event loops and accepting of connections.
+     */
+    public void start() {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        acceptor = new Thread(this::accept, "battleship-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * @return local port of the server
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of open connections
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    private void accept() {
+        int next = 0;
+        try {
+            while (true) {
+                SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            }
+        } catch (ClosedChannelException exception) {
+            // server has been closed
+        } catch (IOException exception) {
+            System.out.println("Server has been stopped: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Stop accepting connections, close all connections and wait for event loops.
+     *
+     * @throws IOException if server channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        for (EventLoop loop : loops) {
+            loop.stop();
+        }
+        try {
+            if (acceptor != null) acceptor.join();
+            for (Thread thread : threads) {
+                if (thread.isAlive()) thread.join();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        placements.close();
+    }
+}
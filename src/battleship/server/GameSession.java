@@ -0,0 +1,270 @@
+package battleship.server;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.ocean.LayoutDatabase;
+import battleship.model.game.user.User;
+import battleship.view.oceanview.OceanView;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * One game hosted by the server: game, user and the view of the ocean known to the user.
+ * Session is not thread-safe, all commands of the session must be executed by one thread at a time.
+ * The game is defined by its configuration, seed and the log of shots, so it can be written compactly
+ * and restored by replaying the shots.
+ * Ships are placed by the layout database set by "battleship.layouts" property (if it has the configuration),
+ * so restored sessions must use the same database.
+ */
+public class GameSession {
+    /**
+     * Maximum number of ships of one type (even submarines don't fit on the biggest ocean in such number).
+     */
+    public static final int MAX_SHIPS_OF_TYPE = 256;
+    /**
+     * Maximum number of torpedoes (written to the session file as unsigned short).
+     */
+    public static final int MAX_TORPEDOES = 0xFFFF;
+    private static final int FORMAT_VERSION = 1;
+    private static final LayoutDatabase LAYOUTS = openLayouts(System.getProperty("battleship.layouts"));
+
+    private final int sizeHorizontal;
+    private final int sizeVertical;
+    private final int[] counters;
+    private final int torpedoes;
+    private final boolean recoveryMode;
+    private final long seed;
+
+    private final Game game;
+    private final User user;
+    private final OceanView oceanView;
+    private int lastRecovered;
+    /**
+     * Shots passed to the game: cell * 2 + 1 for torpedo.
+     */
+    private int[] shotLog = new int[16];
+    private int shotCount;
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param torpedoes      number of available torpedoes (0 - torpedo mode disabled)
+     * @param recoveryMode   ship recovery mode enabled
+     * @param seed           seed of the ships layout
+     * @throws IllegalArgumentException if configuration is incorrect
+     * @throws RuntimeException         if ships cannot be placed on this ocean
+     */
+    public GameSession(int sizeHorizontal, int sizeVertical, int[] counters, int torpedoes,
+                       boolean recoveryMode, long seed) throws RuntimeException {
+        checkCounters(counters);
+        checkTorpedoes(torpedoes);
+        this.sizeHorizontal = sizeHorizontal;
+        this.sizeVertical = sizeVertical;
+        this.counters = counters.clone();
+        this.torpedoes = torpedoes;
+        this.recoveryMode = recoveryMode;
+        this.seed = seed;
+
+        game = new Game(sizeHorizontal, sizeVertical);
+        game.placeShipsOnOcean(counters, new SplittableRandom(seed), LAYOUTS);
+        game.setGameMode(Game.recognizeMode(torpedoes, recoveryMode), torpedoes);
+        user = new User();
+        game.addListener(user);
+        user.setCurrentSession(game);
+        oceanView = new OceanView(sizeHorizontal, sizeVertical);
+    }
+
+    private static LayoutDatabase openLayouts(String file) {
+        if (file == null) return null;
+        try {
+            return LayoutDatabase.open(Path.of(file));
+        } catch (IOException exception) {
+            System.out.println("Layout database is not used: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Attack the cell and update the view.
+     *
+     * @param x    horizontal coordinate
+     * @param y    vertical coordinate
+     * @param mode firing mode
+     * @return attack report
+     * @throws IllegalArgumentException if position is out of the ocean or there is no available torpedo
+     * @throws IllegalStateException    if the game is over
+     */
+    public AttackReport shoot(int x, int y, FiringMode mode) throws IllegalArgumentException, IllegalStateException {
+        if (isOver())
+            throw new IllegalStateException("Game is over");
+        if (x < 0 || x >= sizeHorizontal || y < 0 || y >= sizeVertical)
+            throw new IllegalArgumentException("Attacking position was out of the ocean");
+
+        if (shotCount == shotLog.length) shotLog = Arrays.copyOf(shotLog, shotCount * 2);
+        // failed torpedo shot is counted by the user too, so it is logged before the shot
+        shotLog[shotCount++] = (y * sizeHorizontal + x) * 2 + (mode == FiringMode.TORPEDO_FIRING_MODE ? 1 : 0);
+        AttackReport report = user.hitOnPlace(game.getPoint(x, y), mode);
+        oceanView.updateOceanView(report);
+
+        // Recovery ship mode
+        lastRecovered = 0;
+        var pointsToRecover = game.getPointsToRecover();
+        if (pointsToRecover != null) {
+            lastRecovered = pointsToRecover.size();
+            oceanView.recoverShipCellsByPoints(pointsToRecover);
+            game.clearPointsToRecover();
+        }
+        return report;
+    }
+
+    /**
+     * Check the numbers of ships before any ship is created.
+     *
+     * @param counters number of ships of every type (from Carrier to Submarine)
+     * @throws IllegalArgumentException if there are not 5 types or some number is out of range
+     */
+    public static void checkCounters(int[] counters) throws IllegalArgumentException {
+        if (counters.length != 5)
+            throw new IllegalArgumentException("Number of ships of 5 types required");
+        for (int counter : counters) {
+            if (counter < 0 || counter > MAX_SHIPS_OF_TYPE)
+                throw new IllegalArgumentException("Number of ships of one type must be from 0 to " + MAX_SHIPS_OF_TYPE);
+        }
+    }
+
+    /**
+     * Check the number of torpedoes, so the session is written and restored with the same number.
+     *
+     * @param torpedoes number of available torpedoes
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public static void checkTorpedoes(int torpedoes) throws IllegalArgumentException {
+        if (torpedoes < 0 || torpedoes > MAX_TORPEDOES)
+            throw new IllegalArgumentException("Number of torpedoes must be from 0 to " + MAX_TORPEDOES);
+    }
+
+    /**
+     * Write configuration, seed and shots of the session.
+     *
+     * @param out output
+     * @throws IOException if output cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(sizeHorizontal);
+        out.writeByte(sizeVertical);
+        for (int counter : counters) {
+            out.writeShort(counter);
+        }
+        out.writeShort(torpedoes);
+        out.writeBoolean(recoveryMode);
+        out.writeLong(seed);
+        out.writeInt(shotCount);
+        for (int i = 0; i < shotCount; i++) {
+            out.writeShort(shotLog[i]);
+        }
+    }
+
+    /**
+     * Restore the session written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in input
+     * @return session in the same state
+     * @throws IOException if input cannot be read or has unknown format
+     */
+    public static GameSession readFrom(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION)
+            throw new IOException("Unknown session format version: " + version);
+        int sizeHorizontal = in.readUnsignedByte();
+        int sizeVertical = in.readUnsignedByte();
+        int[] counters = new int[5];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = in.readUnsignedShort();
+        }
+        int torpedoes = in.readUnsignedShort();
+        boolean recoveryMode = in.readBoolean();
+        long seed = in.readLong();
+        GameSession session = new GameSession(sizeHorizontal, sizeVertical, counters, torpedoes, recoveryMode, seed);
+
+        int shots = in.readInt();
+        for (int i = 0; i < shots; i++) {
+            int shot = in.readUnsignedShort();
+            int cell = shot >> 1;
+            try {
+                session.shoot(cell % sizeHorizontal, cell / sizeHorizontal,
+                        (shot & 1) == 1 ? FiringMode.TORPEDO_FIRING_MODE : FiringMode.GENERAL_FIRING_MODE);
+            } catch (IllegalArgumentException ex) {
+                // shot was rejected in the original session too
+            }
+        }
+        return session;
+    }
+
+    /**
+     * @return true if the whole fleet has been sunk
+     */
+    public boolean isOver() {
+        return game.getFleetHealth() <= 0;
+    }
+
+    /**
+     * @return number of cells recovered after the last shot (ship recovery mode)
+     */
+    public int getLastRecovered() {
+        return lastRecovered;
+    }
+
+    /**
+     * @return number of shots
+     */
+    public int getShots() {
+        return user.getActionsCounter();
+    }
+
+    public int getFleetHealth() {
+        return game.getFleetHealth();
+    }
+
+    public int getAvailableTorpedo() {
+        return game.getAvailableTorpedo();
+    }
+
+    public OceanView getOceanView() {
+        return oceanView;
+    }
+
+    public int getSizeHorizontal() {
+        return sizeHorizontal;
+    }
+
+    public int getSizeVertical() {
+        return sizeVertical;
+    }
+
+    /**
+     * @return copy of the numbers of ships of every type
+     */
+    public int[] getCounters() {
+        return counters.clone();
+    }
+
+    public int getTorpedoes() {
+        return torpedoes;
+    }
+
+    public boolean isRecoveryMode() {
+        return recoveryMode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,335 @@
+package battleship.server;
+
+import battleship.metrics.Metrics;
+import battleship.metrics.MetricsSnapshot;
+import battleship.model.game.AttackReport;
+import battleship.model.game.FiringMode;
+import battleship.view.oceanview.OceanView;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * HTTP/JSON game API on the JDK HTTP server. Requests are handled by virtual threads when the JDK supports them
+ * (otherwise by the cached thread pool), commands of one game are executed one at a time.
+ * Ships of new games are placed by the bounded pool of {@link PlacementExecutor}, the request waits for it
+ * (422 if the ships cannot be placed in time, 503 if too many games are being created).
+ * <p>
+ * POST /games {"width": 10, "height": 10, "counters": [1, 1, 1, 1, 1], "torpedoes": 0, "recovery": false} - new game;
+ * POST /games/{id}/shots {"x": 1, "y": 2, "torpedo": false} - shot;
+ * GET /games/{id} - state of the game with the board (one character per cell); DELETE /games/{id};
+ * GET /stats - counters of the session store; GET /metrics - counters and latency histograms of the game.
+ */
+public class HttpGameServer implements Closeable {
+    private static final String GAMES_PATH = "/games";
+    private static final String SHOTS_PATH = "/shots";
+    private static final String STATS_PATH = "/stats";
+    private static final String METRICS_PATH = "/metrics";
+    private static final int MAX_BODY = 4096;
+    private static final int DEFAULT_SHARDS = 64;
+    private static final int DEFAULT_MAX_SESSIONS = 100_000;
+    private static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PlacementExecutor placements;
+    private final SessionRegistry sessions;
+    private final SplittableRandom seeds;
+
+    /**
+     * Server with sessions evicted to the temporary directory.
+     *
+     * @param port port to listen (0 - any free port)
+     * @param seed seed of the sequence of games layouts
+     * @throws IOException if port cannot be bound or temporary directory cannot be created
+     */
+    public HttpGameServer(int port, long seed) throws IOException {
+        this(port, seed, new SessionRegistry(DEFAULT_SHARDS, DEFAULT_MAX_SESSIONS, DEFAULT_TTL_MILLIS,
+                Files.createTempDirectory("battleship-sessions")));
+    }
+
+    /**
+     * @param port     port to listen (0 - any free port)
+     * @param seed     seed of the sequence of games layouts
+     * @param sessions store of the sessions
+     * @throws IOException if port cannot be bound
+     */
+    public HttpGameServer(int port, long seed, SessionRegistry sessions) throws IOException {
+        this.sessions = sessions;
+        seeds = new SplittableRandom(seed);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        placements = new PlacementExecutor(Runtime.getRuntime().availableProcessors(),
+                PlacementExecutor.DEFAULT_TIMEOUT_MILLIS);
+        server.createContext(GAMES_PATH, this::handle);
+        server.createContext(STATS_PATH, this::handle);
+        server.createContext(METRICS_PATH, this::handle);
+    }
+
+    /**
+     * @return virtual thread per task executor (JDK 21+) or cached thread pool
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return local port of the server
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop the server and its executor.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        placements.close();
+        sessions.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        StringBuilder response = new StringBuilder(256);
+        int status;
+        try {
+            try {
+                status = route(exchange, response);
+            } catch (IllegalArgumentException ex) {
+                status = 400;
+                error(response, ex.getMessage());
+            } catch (IllegalStateException ex) {
+                status = 409;
+                error(response, ex.getMessage());
+            } catch (RuntimeException ex) {
+                status = 422;
+                error(response, ex.getMessage());
+            }
+            send(exchange, status, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return HTTP status
+     */
+    private int route(HttpExchange exchange, StringBuilder response) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(STATS_PATH)) {
+            if (!method.equals("GET")) return methodNotAllowed(response);
+            writeStats(response);
+            return 200;
+        }
+        if (path.equals(METRICS_PATH)) {
+            if (!method.equals("GET")) return methodNotAllowed(response);
+            writeMetrics(response);
+            return 200;
+        }
+        if (path.equals(GAMES_PATH) || path.equals(GAMES_PATH + "/")) {
+            if (!method.equals("POST")) return methodNotAllowed(response);
+            return createGame(Json.parseObject(readBody(exchange)), response);
+        }
+
+        // /games/{id} or /games/{id}/shots
+        if (!path.startsWith(GAMES_PATH + "/")) return notFound(response);
+        String rest = path.substring(GAMES_PATH.length() + 1);
+        boolean shots = rest.endsWith(SHOTS_PATH);
+        if (shots) rest = rest.substring(0, rest.length() - SHOTS_PATH.length());
+        long id;
+        try {
+            id = Long.parseLong(rest);
+        } catch (NumberFormatException ex) {
+            return notFound(response);
+        }
+        Integer status;
+        if (shots) {
+            if (!method.equals("POST")) return methodNotAllowed(response);
+            Map<String, Object> shot = Json.parseObject(readBody(exchange));
+            status = sessions.execute(id, session -> shoot(session, shot, response));
+        } else {
+            switch (method) {
+                case "GET" -> status = sessions.execute(id, session -> {
+                    writeGame(id, session, response);
+                    return 200;
+                });
+                case "DELETE" -> status = sessions.remove(id) ? 204 : null;
+                default -> {
+                    return methodNotAllowed(response);
+                }
+            }
+        }
+        return status == null ? notFound(response) : status;
+    }
+
+    private int createGame(Map<String, Object> request, StringBuilder response) {
+        if (!(request.get("counters") instanceof long[] counters) || counters.length != 5)
+            throw new IllegalArgumentException("\"counters\" must contain numbers of ships of 5 types");
+        int[] fleet = new int[counters.length];
+        for (int i = 0; i < fleet.length; i++) {
+            // values out of range stay out of range for the check
+            fleet[i] = (int) Math.max(-1, Math.min(counters[i], GameSession.MAX_SHIPS_OF_TYPE + 1L));
+        }
+        GameSession.checkCounters(fleet);
+        int torpedoes = getInt(request, "torpedoes", 0);
+        GameSession.checkTorpedoes(torpedoes);
+        int width = getInt(request, "width", -1);
+        int height = getInt(request, "height", -1);
+        boolean recovery = Boolean.TRUE.equals(request.get("recovery"));
+        long seed;
+        synchronized (seeds) {
+            seed = seeds.nextLong();
+        }
+        GameSession session;
+        try {
+            session = placements.create(() -> new GameSession(width, height, fleet, torpedoes, recovery, seed)).join();
+        } catch (RejectedExecutionException ex) {
+            error(response, PlacementExecutor.errorMessage(ex));
+            return 503;
+        } catch (CompletionException | CancellationException ex) {
+            if (ex.getCause() instanceof IllegalArgumentException cause) throw cause;
+            error(response, PlacementExecutor.errorMessage(ex));
+            return 422;
+        }
+
+        long id = sessions.add(session);
+        writeGame(id, session, response);
+        return 201;
+    }
+
+    private int shoot(GameSession session, Map<String, Object> request, StringBuilder response) {
+        FiringMode mode = Boolean.TRUE.equals(request.get("torpedo")) ?
+                FiringMode.TORPEDO_FIRING_MODE : FiringMode.GENERAL_FIRING_MODE;
+        AttackReport report = session.shoot(getInt(request, "x", -1), getInt(request, "y", -1), mode);
+
+        response.append("{\"result\":\"").append(report.getResult().name()).append('"');
+        if (report.getResult() == AttackReport.HitResult.SUNK) {
+            response.append(",\"ship\":");
+            Json.quote(response, report.getShip().toString());
+        }
+        response.append(",\"fleetHealth\":").append(report.getFleetHealthRemaining())
+                .append(",\"recovered\":").append(session.getLastRecovered())
+                .append(",\"shots\":").append(session.getShots())
+                .append(",\"over\":").append(session.isOver()).append('}');
+        return 200;
+    }
+
+    private void writeGame(long id, GameSession session, StringBuilder response) {
+        response.append("{\"id\":").append(id)
+                .append(",\"width\":").append(session.getSizeHorizontal())
+                .append(",\"height\":").append(session.getSizeVertical())
+                .append(",\"fleetHealth\":").append(session.getFleetHealth())
+                .append(",\"torpedoes\":").append(session.getAvailableTorpedo())
+                .append(",\"recovery\":").append(session.isRecoveryMode())
+                .append(",\"shots\":").append(session.getShots())
+                .append(",\"over\":").append(session.isOver())
+                .append(",\"board\":[");
+        // one character per cell: ' ' - unknown, '.' - miss, '*' - hit, 'x' - sunk
+        OceanView view = session.getOceanView();
+        for (int y = 0; y < session.getSizeVertical(); y++) {
+            if (y > 0) response.append(',');
+            response.append('"');
+            for (int x = 0; x < session.getSizeHorizontal(); x++) {
+                response.append(view.getCell(x, y).toString().charAt(1));
+            }
+            response.append('"');
+        }
+        response.append("]}");
+    }
+
+    private void writeStats(StringBuilder response) {
+        response.append("{\"sessions\":").append(sessions.size())
+                .append(",\"hits\":").append(sessions.getHits())
+                .append(",\"misses\":").append(sessions.getMisses())
+                .append(",\"loads\":").append(sessions.getLoads())
+                .append(",\"evictions\":").append(sessions.getEvictions())
+                .append(",\"expired\":").append(sessions.getExpired()).append('}');
+    }
+
+    private static void writeMetrics(StringBuilder response) {
+        MetricsSnapshot metrics = Metrics.snapshot();
+        response.append("{\"enabled\":").append(metrics.enabled());
+        metrics.counters().forEach((name, value) -> response.append(",\"").append(name).append("\":").append(value));
+        metrics.histograms().forEach((name, value) -> response.append(",\"").append(name)
+                .append("\":{\"count\":").append(value.count())
+                .append(",\"mean\":").append(Math.round(value.mean()))
+                .append(",\"p50\":").append(value.percentile(0.5))
+                .append(",\"p99\":").append(value.percentile(0.99))
+                .append(",\"max\":").append(value.max()).append('}'));
+        response.append('}');
+    }
+
+    private static int getInt(Map<String, Object> request, String key, int defaultValue) {
+        Object value = request.get(key);
+        if (value == null) return defaultValue;
+        if (!(value instanceof Long number))
+            throw new IllegalArgumentException("\"" + key + "\" must be a number");
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("\"" + key + "\" is out of range");
+        return number.intValue();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY)
+                throw new IllegalArgumentException("Request body is too large");
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int notFound(StringBuilder response) {
+        error(response, "Not found");
+        return 404;
+    }
+
+    private static int methodNotAllowed(StringBuilder response) {
+        error(response, "Method not allowed");
+        return 405;
+    }
+
+    private static void error(StringBuilder response, String message) {
+        response.setLength(0);
+        response.append("{\"error\":");
+        Json.quote(response, message == null ? "Error" : message).append('}');
+    }
+
+    private static void send(HttpExchange exchange, int status, StringBuilder response) throws IOException {
+        if (status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package battleship.server;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the HTTP API: flat request objects and hand written responses.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Parse flat object with number, boolean and number array values.
+     *
+     * @param text JSON text (empty text is an empty object)
+     * @return values by keys: Long, Boolean or long[]
+     * @throws IllegalArgumentException if text isn't a flat object
+     */
+    static Map<String, Object> parseObject(String text) throws IllegalArgumentException {
+        Map<String, Object> values = new HashMap<>();
+        Parser parser = new Parser(text);
+        if (parser.end()) return values;
+
+        parser.expect('{');
+        if (parser.consume('}')) return values;
+        do {
+            String key = parser.string();
+            parser.expect(':');
+            values.put(key, parser.value());
+        } while (parser.consume(','));
+        parser.expect('}');
+        if (!parser.end())
+            throw new IllegalArgumentException("Unexpected data after JSON object");
+        return values;
+    }
+
+    /**
+     * Append string value with quotes.
+     *
+     * @param out   output
+     * @param value string
+     * @return output
+     */
+    static StringBuilder quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                default -> {
+                    if (symbol < ' ') {
+                        out.append(String.format("\\u%04x", (int) symbol));
+                    } else {
+                        out.append(symbol);
+                    }
+                }
+            }
+        }
+        return out.append('"');
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (consume('[')) {
+                long[] array = new long[4];
+                int count = 0;
+                if (!consume(']')) {
+                    do {
+                        if (count == array.length) array = Arrays.copyOf(array, count * 2);
+                        array[count++] = number();
+                    } while (consume(','));
+                    expect(']');
+                }
+                return Arrays.copyOf(array, count);
+            }
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            return number();
+        }
+
+        private long number() {
+            skipWhitespace();
+            int start = position;
+            if (position < text.length() && text.charAt(position) == '-') position++;
+            while (position < text.length() && Character.isDigit(text.charAt(position))) position++;
+            try {
+                return Long.parseLong(text.substring(start, position));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Number expected at " + start);
+            }
+        }
+
+        private String string() {
+            expect('"');
+            int end = text.indexOf('"', position);
+            if (end < 0)
+                throw new IllegalArgumentException("Unterminated string at " + position);
+            String value = text.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        private void expect(char symbol) {
+            if (!consume(symbol))
+                throw new IllegalArgumentException("'" + symbol + "' expected at " + position);
+        }
+
+        private boolean consume(char symbol) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == symbol) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean end() {
+            skipWhitespace();
+            return position == text.length();
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package battleship.server;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool which creates game sessions, so the ships placement of one client (which may take long
+ * on dense fleets) never runs on the threads serving other clients and never takes more than a few processors.
+ * The pool has a fixed number of threads and a bounded queue; the creation fails if the queue is full
+ * or the session isn't created before the deadline (the placement itself is bounded and finishes later).
+ */
+final class PlacementExecutor implements Closeable {
+    /**
+     * Deadline of the session creation: the exact feasibility check and the bounded search take less
+     * on one processor.
+     */
+    static final long DEFAULT_TIMEOUT_MILLIS = 5_000;
+    private static final int QUEUE_PER_THREAD = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    /**
+     * @param threads       number of threads
+     * @param timeoutMillis deadline of the session creation
+     * @throws IllegalArgumentException if number of threads is less than 1
+     */
+    PlacementExecutor(int threads, long timeoutMillis) throws IllegalArgumentException {
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of placement threads must be positive");
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), task -> {
+            Thread thread = new Thread(task, "battleship-placement-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the session on the pool.
+     *
+     * @param factory creation of the session
+     * @return future of the session, completed by {@link TimeoutException} after the deadline
+     * @throws RejectedExecutionException if too many sessions are being created
+     */
+    CompletableFuture<GameSession> create(Supplier<GameSession> factory) throws RejectedExecutionException {
+        return CompletableFuture.supplyAsync(factory, executor).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param exception failure of the session creation
+     * @return message for the client
+     */
+    static String errorMessage(Throwable exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null ?
+                exception.getCause() : exception;
+        if (cause instanceof TimeoutException) return "Cannot place ships on this ocean in time";
+        if (cause instanceof RejectedExecutionException) return "Too many games are being created, try again later";
+        return cause.getMessage();
+    }
+
+    /**
+     * Stop the pool (running placements are finished on their daemon threads).
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,436 @@
+package battleship.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Store of game sessions by id, sharded by id.
+ * Commands of one session are executed one at a time, commands of different sessions run in parallel.
+ * Every shard keeps its sessions in the order of access and holds at most its part of the limit of sessions:
+ * adding or loading a session over the limit writes the least recently used session of the shard to the spill
+ * directory. Sessions which were idle for longer than TTL are spilled by the sweeper. Spilled sessions are loaded
+ * back on the next command; spill files which weren't loaded for longer than disk TTL are deleted.
+ */
+public class SessionRegistry implements Closeable {
+    private static final String FILE_SUFFIX = ".session";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final long DEFAULT_DISK_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Spill of the eldest session fails if it is used at the same time, so the limit is retried a few times.
+     */
+    private static final int MAX_TRIM_ATTEMPTS = 4;
+
+    private final Map<Long, Entry>[] shards;
+    private final int shardMask;
+    private final int maxSessionsPerShard;
+    private final long ttlNanos;
+    private final long diskTtlMillis;
+    private final Path spillDirectory;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Store with spill files kept for one day.
+     *
+     * @param shards         number of shards (rounded up to a power of two)
+     * @param maxSessions    maximum number of sessions in memory
+     * @param ttlMillis      sessions idle for longer time are evicted to disk
+     * @param spillDirectory directory for evicted sessions
+     * @throws IllegalArgumentException if any parameter isn't positive
+     * @throws UncheckedIOException     if spill directory cannot be created
+     */
+    public SessionRegistry(int shards, int maxSessions, long ttlMillis, Path spillDirectory) {
+        this(shards, maxSessions, ttlMillis, DEFAULT_DISK_TTL_MILLIS, spillDirectory);
+    }
+
+    /**
+     * @param shards         number of shards (rounded up to a power of two, but no more than maximum of sessions)
+     * @param maxSessions    maximum number of sessions in memory (divided evenly between shards)
+     * @param ttlMillis      sessions idle for longer time are evicted to disk
+     * @param diskTtlMillis  evicted sessions which weren't loaded for longer time are deleted
+     * @param spillDirectory directory for evicted sessions
+     * @throws IllegalArgumentException if any parameter isn't positive
+     * @throws UncheckedIOException     if spill directory cannot be created
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SessionRegistry(int shards, int maxSessions, long ttlMillis, long diskTtlMillis, Path spillDirectory) {
+        if (shards < 1 || maxSessions < 1 || ttlMillis < 1 || diskTtlMillis < 1)
+            throw new IllegalArgumentException("Number of shards, maximum number of sessions and TTL must be positive");
+        int count = Integer.highestOneBit(shards - 1) << 1;
+        if (shards == 1) count = 1;
+        while (count > maxSessions) {
+            count >>= 1;
+        }
+        this.shards = new Map[count];
+        for (int i = 0; i < count; i++) {
+            // access order: the least recently used session is the first
+            this.shards[i] = new LinkedHashMap<>(16, 0.75f, true);
+        }
+        shardMask = count - 1;
+        maxSessionsPerShard = maxSessions / count;
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.diskTtlMillis = diskTtlMillis;
+        this.spillDirectory = spillDirectory;
+        try {
+            Files.createDirectories(spillDirectory);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "battleship-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, ttlMillis / 4);
+        sweeper.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+        long diskPeriod = Math.max(1, diskTtlMillis / 4);
+        sweeper.scheduleWithFixedDelay(this::expireSpilled, diskPeriod, diskPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add new session. If the shard is full, its least recently used session is evicted to disk.
+     *
+     * @param session session
+     * @return id of the session
+     */
+    public long add(GameSession session) {
+        long id = nextId.getAndIncrement();
+        Map<Long, Entry> shard = shard(id);
+        synchronized (shard) {
+            shard.put(id, new Entry(session));
+        }
+        trim(shard);
+        return id;
+    }
+
+    /**
+     * Execute the command on the session (loading it from disk if it has been evicted).
+     *
+     * @param id      id of the session
+     * @param command command (executed while no other command of the session is running)
+     * @param <T>     type of the result
+     * @return result of the command, null if there is no such session
+     * @throws UncheckedIOException if evicted session cannot be loaded
+     */
+    public <T> T execute(long id, Function<GameSession, T> command) throws UncheckedIOException {
+        Map<Long, Entry> shard = shard(id);
+        boolean counted = false;
+        while (true) {
+            Entry entry;
+            synchronized (shard) {
+                entry = shard.get(id);
+            }
+            if (!counted) {
+                if (entry != null) hits.increment();
+                else misses.increment();
+                counted = true;
+            }
+            if (entry == null) {
+                entry = load(id, shard);
+                if (entry == null) return null;
+            }
+            if (entry.removed) return null;
+            // waits for the thread loading the session
+            synchronized (entry) {
+                // evicted between get and lock, or loading has failed
+                if (entry.session == null) continue;
+                entry.lastAccess = System.nanoTime();
+                return command.apply(entry.session);
+            }
+        }
+    }
+
+    /**
+     * Remove session from memory and disk.
+     *
+     * @param id id of the session
+     * @return true if session existed
+     */
+    public boolean remove(long id) {
+        Map<Long, Entry> shard = shard(id);
+        // the tombstone stops loading of the file until it is deleted
+        Entry tombstone = new Entry(null);
+        tombstone.removed = true;
+        Entry entry;
+        synchronized (shard) {
+            entry = shard.put(id, tombstone);
+        }
+        boolean existed = false;
+        if (entry != null && !entry.removed) {
+            // waits for the thread loading or spilling the session
+            synchronized (entry) {
+                existed = entry.session != null;
+                entry.session = null;
+            }
+        }
+        try {
+            return Files.deleteIfExists(spillFile(id)) || existed;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            synchronized (shard) {
+                shard.remove(id, tombstone);
+            }
+        }
+    }
+
+    /**
+     * Evict sessions which are idle for longer than TTL.
+     * Every shard is checked from its least recently used session up to the first session which isn't idle.
+     *
+     * @return number of evicted sessions
+     */
+    public int evict() {
+        int evicted = 0;
+        List<Long> ids = new ArrayList<>();
+        List<Entry> idle = new ArrayList<>();
+        for (Map<Long, Entry> shard : shards) {
+            long now = System.nanoTime();
+            ids.clear();
+            idle.clear();
+            synchronized (shard) {
+                for (Map.Entry<Long, Entry> item : shard.entrySet()) {
+                    if (now - item.getValue().lastAccess <= ttlNanos) break;
+                    ids.add(item.getKey());
+                    idle.add(item.getValue());
+                }
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                Entry entry = idle.get(i);
+                if (spill(ids.get(i), entry, entry.lastAccess, now)) ++evicted;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Delete spill files (and temporary files of interrupted spills) older than disk TTL.
+     *
+     * @return number of deleted sessions
+     */
+    public int expireSpilled() {
+        long threshold = System.currentTimeMillis() - diskTtlMillis;
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(FILE_SUFFIX) && !name.endsWith(TEMPORARY_SUFFIX)) continue;
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < threshold && Files.deleteIfExists(file)
+                            && name.endsWith(FILE_SUFFIX)) {
+                        ++deleted;
+                    }
+                } catch (IOException exception) {
+                    // file has been loaded or deleted meanwhile
+                }
+            }
+        } catch (IOException exception) {
+            // the next sweep tries again
+            return deleted;
+        }
+        expired.add(deleted);
+        return deleted;
+    }
+
+    /**
+     * @return number of sessions in memory
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, Entry> shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of commands for sessions found in memory
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of commands for sessions not found in memory (loaded or unknown)
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of sessions loaded from disk
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return number of sessions evicted to disk
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of evicted sessions deleted from disk after disk TTL
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Stop eviction. Sessions in memory are not written to disk.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Evict the least recently used sessions of the shard over the limit.
+     */
+    private void trim(Map<Long, Entry> shard) {
+        for (int attempt = 0; attempt < MAX_TRIM_ATTEMPTS; attempt++) {
+            long id;
+            Entry entry;
+            synchronized (shard) {
+                if (shard.size() <= maxSessionsPerShard) return;
+                Map.Entry<Long, Entry> eldest = shard.entrySet().iterator().next();
+                id = eldest.getKey();
+                entry = eldest.getValue();
+            }
+            spill(id, entry, entry.lastAccess, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Write the session to disk and remove it from memory if it wasn't used after the check.
+     * The file is written under the temporary name and renamed, so the crash never leaves a partial session.
+     *
+     * @param now time of the TTL check, Long.MIN_VALUE if the session is evicted by the limit
+     */
+    private boolean spill(long id, Entry entry, long lastAccess, long now) {
+        synchronized (entry) {
+            if (entry.session == null || entry.lastAccess != lastAccess) return false;
+            Path file = spillFile(id);
+            Path temporary = spillDirectory.resolve(id + TEMPORARY_SUFFIX);
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    entry.session.writeTo(out);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException exception) {
+                // session stays in memory
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // deleted by the disk sweep
+                }
+                return false;
+            }
+            entry.session = null;
+            Map<Long, Entry> shard = shard(id);
+            synchronized (shard) {
+                shard.remove(id, entry);
+            }
+        }
+        evictions.increment();
+        return true;
+    }
+
+    /**
+     * Load the evicted session. The empty entry is added to the shard before the file is read and stays locked
+     * until the session is loaded, so only one thread reads the file and the others wait for it on the entry.
+     *
+     * @return entry of the session (locked by another thread if it is loading), null if there is no such session
+     */
+    private Entry load(long id, Map<Long, Entry> shard) {
+        Entry loading = new Entry(null);
+        synchronized (loading) {
+            Entry entry;
+            synchronized (shard) {
+                entry = shard.putIfAbsent(id, loading);
+            }
+            if (entry != null) return entry;
+
+            Path file = spillFile(id);
+            GameSession session = null;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                session = GameSession.readFrom(in);
+            } catch (NoSuchFileException exception) {
+                // unknown or removed session
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            } finally {
+                if (session == null) {
+                    synchronized (shard) {
+                        shard.remove(id, loading);
+                    }
+                }
+            }
+            if (session == null) return null;
+            loading.session = session;
+            loading.lastAccess = System.nanoTime();
+            try {
+                Files.delete(file);
+            } catch (IOException exception) {
+                // the file is replaced by the next spill or deleted after disk TTL
+            }
+        }
+        loads.increment();
+        trim(shard);
+        return loading;
+    }
+
+    private Map<Long, Entry> shard(long id) {
+        return shards[(int) (id ^ id >>> 32) & shardMask];
+    }
+
+    private Path spillFile(long id) {
+        return spillDirectory.resolve(id + FILE_SUFFIX);
+    }
+
+    private static final class Entry {
+        private GameSession session;
+        private volatile long lastAccess;
+        /**
+         * Tombstone of the session which is being removed.
+         */
+        private volatile boolean removed;
+
+        private Entry(GameSession session) {
+            this.session = session;
+            lastAccess = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package battleship.simulation;
+
+import battleship.model.game.AttackReport;
+import battleship.model.game.ShotResult;
+import battleship.model.game.ocean.PointPool;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Hunt / target strategy with probability density map.
+ * Density of the cell is the number of positions of remaining ships which cover the cell
+ * (weighted by the number of ships of every type). Positions which cover known empty cells are excluded
+ * once, when the cell becomes known, so every shot updates only the positions in its row and column.
+ * Known empty cells are misses, diagonal neighbours of hits and neighbours of sunk ships (ships cannot touch).
+ * While there are hits of not sunk ship, only positions which cover these hits are counted.
+ */
+public class ProbabilityDensityStrategy implements ShootingStrategy {
+    private static final int MAX_LENGTH = 5;
+    private static final int[] DIAGONALS = {PointPool.UP_AND_LEFT, PointPool.UP_AND_RIGHT,
+            PointPool.DOWN_AND_LEFT, PointPool.DOWN_AND_RIGHT};
+    private static final Map<Integer, Placements> PLACEMENTS = new ConcurrentHashMap<>();
+
+    private final RandomGenerator random;
+    private final Placements placements;
+    private final PointPool points;
+
+    /**
+     * Number of remaining ships by length.
+     */
+    private final int[] remaining = new int[MAX_LENGTH + 1];
+    /**
+     * Positions which cover known empty cells, by length.
+     */
+    private final boolean[][] blocked = new boolean[MAX_LENGTH + 1][];
+    /**
+     * Number of not blocked positions which cover the cell, by length.
+     */
+    private final int[][] validCount = new int[MAX_LENGTH + 1][];
+    private final long[] density;
+    private final long[] score;
+    private final boolean[] shot;
+    private final boolean[] empty;
+    /**
+     * Hits of the ships which are not sunk yet.
+     */
+    private final boolean[] openHit;
+    private final int[] openHits;
+    private int openHitsCount;
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param random         source of randomness (used to choose between cells with equal density)
+     */
+    public ProbabilityDensityStrategy(int sizeHorizontal, int sizeVertical, int[] counters, RandomGenerator random) {
+        this.random = random;
+        placements = PLACEMENTS.computeIfAbsent(sizeHorizontal << 16 | sizeVertical,
+                key -> new Placements(sizeHorizontal, sizeVertical));
+        points = PointPool.of(sizeHorizontal, sizeVertical);
+
+        int cells = sizeHorizontal * sizeVertical;
+        density = new long[cells];
+        score = new long[cells];
+        shot = new boolean[cells];
+        empty = new boolean[cells];
+        openHit = new boolean[cells];
+        // cells of the sunk ship are collected after the open hits
+        openHits = new int[cells * 2];
+
+        for (int i = 0; i < counters.length && i < MAX_LENGTH; i++) {
+            int length = MAX_LENGTH - i;
+            remaining[length] = counters[i];
+            if (counters[i] == 0) continue;
+
+            blocked[length] = new boolean[placements.count(length)];
+            validCount[length] = placements.initialCount(length).clone();
+            for (int cell = 0; cell < cells; cell++) {
+                density[cell] += (long) remaining[length] * validCount[length][cell];
+            }
+        }
+    }
+
+    /**
+     * @return cell with the highest density (among cells near the hits if there are any)
+     */
+    @Override
+    public int nextShot() {
+        if (openHitsCount > 0) {
+            int cell = bestCell(targetScore());
+            if (cell >= 0) return cell;
+        }
+        int cell = bestCell(density);
+        if (cell >= 0) return cell;
+
+        // density is zero everywhere (should not happen on consistent results)
+        for (int i = 0; i < shot.length; i++) {
+            if (!shot[i]) return i;
+        }
+        throw new IllegalStateException("All cells have been attacked");
+    }
+
+    /**
+     * Update density map.
+     *
+     * @param cell       index of the attacked cell
+     * @param shotResult packed shot result
+     */
+    @Override
+    public void onShotResult(int cell, int shotResult) {
+        shot[cell] = true;
+        AttackReport.HitResult result = ShotResult.getResult(shotResult);
+        if (result == AttackReport.HitResult.MISS) {
+            markEmpty(cell);
+            return;
+        }
+
+        // ships are straight and don't touch, so diagonal neighbours of the hit are empty
+        for (int direction : DIAGONALS) {
+            int neighbour = points.getNeighbour(cell, direction);
+            if (neighbour >= 0) markEmpty(neighbour);
+        }
+        if (!openHit[cell]) {
+            openHit[cell] = true;
+            openHits[openHitsCount++] = cell;
+        }
+        if (result == AttackReport.HitResult.SUNK) {
+            sink(cell);
+        }
+    }
+
+    /**
+     * Sunk ship consists of open hits connected with the last hit
+     * (general shots only: ship sunk by torpedo has cells which weren't hit).
+     */
+    private void sink(int cell) {
+        int shipStart = openHitsCount;
+        openHit[cell] = false;
+        openHits[openHitsCount++] = cell;
+        for (int i = shipStart; i < openHitsCount; i++) {
+            for (int direction = PointPool.LEFT; direction <= PointPool.DOWN; direction++) {
+                int neighbour = points.getNeighbour(openHits[i], direction);
+                if (neighbour >= 0 && openHit[neighbour]) {
+                    openHit[neighbour] = false;
+                    openHits[openHitsCount++] = neighbour;
+                }
+            }
+        }
+        int length = Math.min(openHitsCount - shipStart, MAX_LENGTH);
+
+        // ship cells and their neighbours cannot be occupied by other ships
+        for (int i = shipStart; i < openHitsCount; i++) {
+            markEmpty(openHits[i]);
+            for (int direction = 0; direction < PointPool.DIRECTIONS; direction++) {
+                int neighbour = points.getNeighbour(openHits[i], direction);
+                if (neighbour >= 0) markEmpty(neighbour);
+            }
+        }
+        if (remaining[length] > 0) {
+            --remaining[length];
+            for (int i = 0; i < density.length; i++) {
+                density[i] -= validCount[length][i];
+            }
+        }
+
+        // remove sunk cells from the list of open hits
+        openHitsCount = shipStart;
+        int count = 0;
+        for (int i = 0; i < openHitsCount; i++) {
+            if (openHit[openHits[i]]) openHits[count++] = openHits[i];
+        }
+        openHitsCount = count;
+    }
+
+    /**
+     * Block all positions which cover the cell.
+     */
+    private void markEmpty(int cell) {
+        if (empty[cell]) return;
+        empty[cell] = true;
+        for (int length = 1; length <= MAX_LENGTH; length++) {
+            if (blocked[length] == null) continue;
+            for (int placement : placements.covering(length, cell)) {
+                if (blocked[length][placement]) continue;
+                blocked[length][placement] = true;
+                int start = placements.start(length, placement);
+                int step = placements.step(length, placement);
+                for (int i = 0; i < length; i++) {
+                    int covered = start + i * step;
+                    --validCount[length][covered];
+                    density[covered] -= remaining[length];
+                }
+            }
+        }
+    }
+
+    /**
+     * Score of the cell is the number of positions of remaining ships
+     * which cover the cell and the open hits and don't touch other open hits.
+     */
+    private long[] targetScore() {
+        Arrays.fill(score, 0);
+        for (int h = 0; h < openHitsCount; h++) {
+            for (int length = 1; length <= MAX_LENGTH; length++) {
+                if (remaining[length] == 0) continue;
+                for (int placement : placements.covering(length, openHits[h])) {
+                    if (blocked[length][placement] || !coversTouchingHits(length, placement)) continue;
+                    int start = placements.start(length, placement);
+                    int step = placements.step(length, placement);
+                    for (int i = 0; i < length; i++) {
+                        score[start + i * step] += remaining[length];
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @return true if every open hit touching the position is covered by it
+     */
+    private boolean coversTouchingHits(int length, int placement) {
+        int start = placements.start(length, placement);
+        int step = placements.step(length, placement);
+        int end = start + (length - 1) * step;
+        for (int i = 0; i < length; i++) {
+            int cell = start + i * step;
+            for (int direction = 0; direction < PointPool.DIRECTIONS; direction++) {
+                int neighbour = points.getNeighbour(cell, direction);
+                if (neighbour < 0 || !openHit[neighbour]) continue;
+                // neighbour inside of the position
+                if (neighbour >= start && neighbour <= end && (neighbour - start) % step == 0) continue;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return not attacked cell with the highest value (random among equal), -1 if all values are zero
+     */
+    private int bestCell(long[] values) {
+        int best = -1;
+        long bestValue = 0;
+        int ties = 0;
+        for (int cell = 0; cell < values.length; cell++) {
+            if (shot[cell] || values[cell] < bestValue || values[cell] == 0) continue;
+            if (values[cell] > bestValue) {
+                bestValue = values[cell];
+                best = cell;
+                ties = 1;
+            } else if (random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * All positions of ships of every length on the ocean of one size (shared between games).
+     */
+    private static final class Placements {
+        private final int[][] starts = new int[MAX_LENGTH + 1][];
+        private final int[][] steps = new int[MAX_LENGTH + 1][];
+        private final int[][][] covering = new int[MAX_LENGTH + 1][][];
+        private final int[][] initialCounts = new int[MAX_LENGTH + 1][];
+
+        private Placements(int sizeHorizontal, int sizeVertical) {
+            int cells = sizeHorizontal * sizeVertical;
+            for (int length = 1; length <= MAX_LENGTH; length++) {
+                int[] start = new int[cells * 2];
+                int[] step = new int[cells * 2];
+                int count = 0;
+                for (int y = 0; y < sizeVertical; y++) {
+                    for (int x = 0; x < sizeHorizontal; x++) {
+                        if (x + length <= sizeHorizontal) {
+                            start[count] = y * sizeHorizontal + x;
+                            step[count++] = 1;
+                        }
+                        // one-cell ship has the same position in both directions
+                        if (length > 1 && y + length <= sizeVertical) {
+                            start[count] = y * sizeHorizontal + x;
+                            step[count++] = sizeHorizontal;
+                        }
+                    }
+                }
+                starts[length] = Arrays.copyOf(start, count);
+                steps[length] = Arrays.copyOf(step, count);
+
+                initialCounts[length] = new int[cells];
+                for (int p = 0; p < count; p++) {
+                    for (int i = 0; i < length; i++) {
+                        ++initialCounts[length][start[p] + i * step[p]];
+                    }
+                }
+                covering[length] = new int[cells][];
+                int[] filled = new int[cells];
+                for (int cell = 0; cell < cells; cell++) {
+                    covering[length][cell] = new int[initialCounts[length][cell]];
+                }
+                for (int p = 0; p < count; p++) {
+                    for (int i = 0; i < length; i++) {
+                        int cell = start[p] + i * step[p];
+                        covering[length][cell][filled[cell]++] = p;
+                    }
+                }
+            }
+        }
+
+        private int count(int length) {
+            return starts[length].length;
+        }
+
+        private int start(int length, int placement) {
+            return starts[length][placement];
+        }
+
+        private int step(int length, int placement) {
+            return steps[length][placement];
+        }
+
+        private int[] covering(int length, int cell) {
+            return covering[length][cell];
+        }
+
+        private int[] initialCount(int length) {
+            return initialCounts[length];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package battleship.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Attacks not attacked cells in random order.
+ */
+public class RandomShootingStrategy implements ShootingStrategy {
+    private final RandomGenerator random;
+    private final int[] cells;
+    private int shots;
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param random         source of randomness
+     */
+    public RandomShootingStrategy(int sizeHorizontal, int sizeVertical, RandomGenerator random) {
+        this.random = random;
+        cells = new int[sizeHorizontal * sizeVertical];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+    }
+
+    /**
+     * @return random cell which wasn't attacked yet
+     */
+    @Override
+    public int nextShot() {
+        // one step of Fisher-Yates shuffle
+        int j = shots + random.nextInt(cells.length - shots);
+        int cell = cells[j];
+        cells[j] = cells[shots];
+        cells[shots++] = cell;
+        return cell;
+    }
+
+    /**
+     * Random strategy ignores results.
+     *
+     * @param cell       index of the attacked cell
+     * @param shotResult packed shot result
+     */
+    @Override
+    public void onShotResult(int cell, int shotResult) {
+    }
+}
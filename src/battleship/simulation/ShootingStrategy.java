@@ -0,0 +1,20 @@
+package battleship.simulation;
+
+/**
+ * Targeting strategy of the headless player.
+ * Cells are addressed by index (y * horizontal size + x).
+ */
+public interface ShootingStrategy {
+    /**
+     * @return index of the cell to attack
+     */
+    int nextShot();
+
+    /**
+     * Method to notify strategy about the result of the last shot.
+     *
+     * @param cell       index of the attacked cell
+     * @param shotResult packed shot result (see {@link battleship.model.game.ShotResult})
+     */
+    void onShotResult(int cell, int shotResult);
+}
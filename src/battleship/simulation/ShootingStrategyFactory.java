@@ -0,0 +1,17 @@
+package battleship.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Creates new strategy for every simulated game.
+ */
+public interface ShootingStrategyFactory {
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param counters       number of ships of every type (from Carrier to Submarine)
+     * @param random         random source of the worker which plays the game
+     * @return strategy for one game
+     */
+    ShootingStrategy create(int sizeHorizontal, int sizeVertical, int[] counters, RandomGenerator random);
+}
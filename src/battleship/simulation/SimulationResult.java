@@ -0,0 +1,97 @@
+package battleship.simulation;
+
+/**
+ * Shots-to-win distribution of simulated games.
+ */
+public class SimulationResult {
+    private final long[] shotsHistogram;
+    private final long games;
+    private final long totalShots;
+    private final long elapsedNanos;
+
+    /**
+     * @param shotsHistogram number of games by number of shots to win
+     * @param elapsedNanos   time of the simulation
+     */
+    public SimulationResult(long[] shotsHistogram, long elapsedNanos) {
+        this.shotsHistogram = shotsHistogram;
+        this.elapsedNanos = elapsedNanos;
+        long gamesCounter = 0;
+        long shotsCounter = 0;
+        for (int shots = 0; shots < shotsHistogram.length; shots++) {
+            gamesCounter += shotsHistogram[shots];
+            shotsCounter += shotsHistogram[shots] * shots;
+        }
+        games = gamesCounter;
+        totalShots = shotsCounter;
+    }
+
+    /**
+     * @param shots number of shots
+     * @return number of games won with exactly this number of shots
+     */
+    public long getGamesWonWith(int shots) {
+        return shots < shotsHistogram.length ? shotsHistogram[shots] : 0;
+    }
+
+    /**
+     * @return number of played games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return total number of shots in all games
+     */
+    public long getTotalShots() {
+        return totalShots;
+    }
+
+    /**
+     * @return average number of shots to win
+     */
+    public double getMeanShots() {
+        return games == 0 ? 0 : (double) totalShots / games;
+    }
+
+    /**
+     * @param percentile percentile (from 0 to 100)
+     * @return minimal number of shots which is enough to win in percentile of games
+     */
+    public int getShotsPercentile(double percentile) {
+        long rank = (long) Math.ceil(games * percentile / 100);
+        long counter = 0;
+        for (int shots = 0; shots < shotsHistogram.length; shots++) {
+            counter += shotsHistogram[shots];
+            if (counter >= rank && counter > 0) return shots;
+        }
+        return shotsHistogram.length - 1;
+    }
+
+    /**
+     * @return time of the simulation in seconds
+     */
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    /**
+     * @return simulation throughput
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games / getElapsedSeconds();
+    }
+
+    /**
+     * @return summary of the simulation
+     */
+    @Override
+    public String toString() {
+        return ("games: %d, time: %.2f s, games/s: %.0f, shots/s: %.0f%n" +
+                "shots to win: mean %.2f, min %d, p50 %d, p90 %d, p99 %d, max %d").formatted(
+                games, getElapsedSeconds(), getGamesPerSecond(), totalShots / Math.max(getElapsedSeconds(), 1e-9),
+                getMeanShots(), getShotsPercentile(0), getShotsPercentile(50), getShotsPercentile(90),
+                getShotsPercentile(99), getShotsPercentile(100));
+    }
+}
@@ -0,0 +1,124 @@
+package battleship.simulation;
+
+import battleship.model.game.FiringMode;
+import battleship.model.game.Game;
+import battleship.model.game.GameMode;
+import battleship.model.game.ShotResult;
+
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Headless Monte Carlo simulation: plays games with the shooting strategy until all ships are sunk.
+ * Ships are placed by the search of {@link Game#placeShipsOnOcean(int[])}.
+ * Every game has its own random source derived from the seed of the simulation and the index of the game,
+ * the layout is placed from the seed of the game (so {@link Game#getSeed()} reproduces it).
+ * Games are split between workers running in parallel, but the result depends only on (seed, configuration).
+ */
+public class Simulator {
+    private final int sizeHorizontal;
+    private final int sizeVertical;
+    private final int[] counters;
+    private final ShootingStrategyFactory strategyFactory;
+
+    /**
+     * @param sizeHorizontal  horizontal size of the ocean
+     * @param sizeVertical    vertical size of the ocean
+     * @param counters        number of ships of every type (from Carrier to Submarine)
+     * @param strategyFactory strategy of the player
+     * @throws IllegalArgumentException if the ocean cannot be created with this parameters
+     */
+    public Simulator(int sizeHorizontal, int sizeVertical, int[] counters, ShootingStrategyFactory strategyFactory)
+            throws IllegalArgumentException {
+        // check parameters of the ocean
+        new Game(sizeHorizontal, sizeVertical, 0);
+        this.sizeHorizontal = sizeHorizontal;
+        this.sizeVertical = sizeVertical;
+        this.counters = counters.clone();
+        this.strategyFactory = strategyFactory;
+    }
+
+    /**
+     * Run simulation on all available processors.
+     *
+     * @param games number of games to play
+     * @param seed  seed of the simulation
+     * @return shots-to-win distribution
+     * @throws RuntimeException if ships cannot be placed on the ocean
+     */
+    public SimulationResult run(long games, long seed) throws RuntimeException {
+        return run(games, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Run simulation.
+     *
+     * @param games       number of games to play
+     * @param seed        seed of the simulation
+     * @param parallelism number of workers
+     * @return shots-to-win distribution
+     * @throws IllegalArgumentException if number of workers is less than 1
+     * @throws RuntimeException         if ships cannot be placed on the ocean
+     */
+    public SimulationResult run(long games, long seed, int parallelism) throws RuntimeException {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Number of workers must be positive");
+        long base = new SplittableRandom(seed).nextLong();
+
+        long start = System.nanoTime();
+        long[] histogram = IntStream.range(0, parallelism).parallel()
+                .mapToObj(worker -> playGames(games, base, worker, parallelism))
+                .reduce(new long[sizeHorizontal * sizeVertical + 1], Simulator::merge);
+        return new SimulationResult(histogram, System.nanoTime() - start);
+    }
+
+    /**
+     * Play games with indexes worker, worker + parallelism, ...
+     *
+     * @return number of games by number of shots
+     */
+    private long[] playGames(long games, long base, int worker, int parallelism) {
+        long[] histogram = new long[sizeHorizontal * sizeVertical + 1];
+        for (long i = worker; i < games; i += parallelism) {
+            SplittableRandom random = new SplittableRandom(base ^ i);
+            Game game = new Game(sizeHorizontal, sizeVertical, random.nextLong());
+            game.placeShipsOnOcean(counters);
+            ++histogram[playGame(game, random)];
+        }
+        return histogram;
+    }
+
+    /**
+     * Play one game until all ships are sunk.
+     *
+     * @param game   game with placed ships
+     * @param random random source of the game
+     * @return number of shots
+     */
+    int playGame(Game game, SplittableRandom random) {
+        game.setGameMode(EnumSet.of(GameMode.NO_OPTIONS), 0);
+        ShootingStrategy strategy = strategyFactory.create(sizeHorizontal, sizeVertical, counters, random);
+
+        int shots = 0;
+        int fleetHealth = game.getFleetHealth();
+        while (fleetHealth > 0) {
+            if (shots == sizeHorizontal * sizeVertical)
+                throw new IllegalStateException("Strategy hasn't sunk all ships after attacking every cell");
+            int cell = strategy.nextShot();
+            int shotResult = game.hitOnPlace(cell % sizeHorizontal, cell / sizeHorizontal, FiringMode.GENERAL_FIRING_MODE);
+            strategy.onShotResult(cell, shotResult);
+            fleetHealth = ShotResult.getFleetHealthRemaining(shotResult);
+            ++shots;
+        }
+        return shots;
+    }
+
+    private static long[] merge(long[] first, long[] second) {
+        long[] result = new long[first.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = first[i] + second[i];
+        }
+        return result;
+    }
+}
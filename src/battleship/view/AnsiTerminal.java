@@ -0,0 +1,31 @@
+package battleship.view;
+
+/**
+ * ANSI escape sequences for the terminal rendering mode.
+ */
+public final class AnsiTerminal {
+    private static final String ESCAPE = "\033[";
+    /**
+     * Move cursor to the upper left corner and clear the screen.
+     */
+    public static final String CLEAR_SCREEN = ESCAPE + "H" + ESCAPE + "2J";
+    /**
+     * Clear the screen from the cursor to the end.
+     */
+    public static final String CLEAR_TO_END = ESCAPE + "J";
+
+    private AnsiTerminal() {
+    }
+
+    /**
+     * Append sequence which moves the cursor.
+     *
+     * @param out    output
+     * @param line   line number (from 1)
+     * @param column column number (from 1)
+     * @return output
+     */
+    public static StringBuilder moveCursor(StringBuilder out, int line, int column) {
+        return out.append(ESCAPE).append(line).append(';').append(column).append('H');
+    }
+}
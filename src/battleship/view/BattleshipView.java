@@ -7,7 +7,24 @@ import battleship.view.oceanview.OceanView;
 import java.util.List;
 
 public class BattleshipView {
+    /**
+     * Terminal rendering mode is enabled with -Dbattleship.render=ansi.
+     */
+    private static final boolean ANSI_MODE_DEFAULT = "ansi".equalsIgnoreCase(System.getProperty("battleship.render"));
+    /**
+     * Line of the screen where the ocean starts (after the top line).
+     */
+    private static final int OCEAN_FIRST_LINE = 2;
+
     private final OceanView oceanView;
+    private final boolean ansiMode;
+    private boolean oceanPrinted;
+    private final String topLine;
+    private final String bottomLine;
+    /**
+     * Buffer of the frame (reused for every frame).
+     */
+    private final StringBuilder frame = new StringBuilder();
 
     /**
      * @return horizontal size of the ocean.
@@ -24,7 +41,20 @@ public class BattleshipView {
     }
 
     public BattleshipView(int sizeHorizontal, int sizeVertical) {
+        this(sizeHorizontal, sizeVertical, ANSI_MODE_DEFAULT);
+    }
+
+    /**
+     * @param sizeHorizontal horizontal size of the ocean
+     * @param sizeVertical   vertical size of the ocean
+     * @param ansiMode       if true, after the first frame only changed cells and status are redrawn
+     *                       with ANSI escape sequences
+     */
+    public BattleshipView(int sizeHorizontal, int sizeVertical, boolean ansiMode) {
         oceanView = new OceanView(sizeHorizontal, sizeVertical);
+        this.ansiMode = ansiMode;
+        topLine = "=".repeat(sizeHorizontal * 4 + 3);
+        bottomLine = "-".repeat(sizeHorizontal * 4 + 3);
     }
 
     /**
@@ -33,11 +63,23 @@ public class BattleshipView {
      * @param additionalInfo additional info to display in the end
      */
     public void printOcean(String additionalInfo) {
-        clearConsole();
-        System.out.println("=".repeat(oceanView.getOceanHorizontalLength() * 4 + 3));
-        System.out.println(oceanView.printOcean());
-        System.out.println(additionalInfo);
-        System.out.println("-".repeat(oceanView.getOceanHorizontalLength() * 4 + 3));
+        frame.setLength(0);
+        if (ansiMode && oceanPrinted) {
+            oceanView.printChangedCells(frame, OCEAN_FIRST_LINE);
+            // status is printed after the ocean (2 lines per row, header, border and empty line)
+            AnsiTerminal.moveCursor(frame, OCEAN_FIRST_LINE + 2 * getVerticalSize() + 3, 1);
+            frame.append(AnsiTerminal.CLEAR_TO_END);
+        } else {
+            if (ansiMode) frame.append(AnsiTerminal.CLEAR_SCREEN);
+            frame.append(topLine).append(System.lineSeparator());
+            oceanView.printOcean(frame);
+            oceanView.clearChangedCells();
+            oceanPrinted = true;
+            frame.append(System.lineSeparator());
+        }
+        frame.append(additionalInfo).append(System.lineSeparator());
+        frame.append(bottomLine).append(System.lineSeparator());
+        System.out.print(frame);
     }
 
     /**
@@ -72,24 +114,6 @@ public class BattleshipView {
         System.out.println("==================================");
     }
 
-    /**
-     * Clearing console (don't work in IDE)
-     */
-    public static void clearConsole() {
-        try {
-            String operatingSystem = System.getProperty("os.name");
-
-            //Check the current operating system
-            if (operatingSystem.contains("Windows")) {
-                Runtime.getRuntime().exec("cls");
-            } else {
-                Runtime.getRuntime().exec("clear");
-            }
-        } catch (Exception exception) {
-            System.out.println("Cannot clean terminal");
-        }
-    }
-
     /**
      * Print help menu.
      */
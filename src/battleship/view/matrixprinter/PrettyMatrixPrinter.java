@@ -1,5 +1,7 @@
 package battleship.view.matrixprinter;
 
+import battleship.metrics.Metrics;
+
 import static java.lang.String.format;
 
 public final class PrettyMatrixPrinter {
@@ -37,9 +39,12 @@ public final class PrettyMatrixPrinter {
         if (printer == null)
             throw new IllegalArgumentException("No instance of Printer provided");
 
+        long start = Metrics.start();
         final int[] widths = new int[getMaxColumns(table)];
         adjustColumnWidths(table, widths, printer);
-        return printPreparedTable(table, widths, getHorizontalBorder(widths), printer);
+        String result = printPreparedTable(table, widths, getHorizontalBorder(widths), printer);
+        if (Metrics.ENABLED) Metrics.render(start, result.length());
+        return result;
     }
 
     private static <T> String printPreparedTable(T[][] table, int[] widths, String horizontalBorder, Printer<T> printer) {
@@ -0,0 +1,168 @@
+package battleship.view.matrixprinter;
+
+import battleship.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prints the table with fixed width cells straight to the output, without building the whole table as one String.
+ * The output is the same as of {@link PrettyMatrixPrinter} when all cells have the same width.
+ * Header (numbers of columns) and horizontal border are created once for every number of columns.
+ */
+public final class StreamingMatrixPrinter {
+    private static final char BORDER_KNOT = '+';
+    private static final char HORIZONTAL_BORDER = '-';
+    private static final char VERTICAL_BORDER = '|';
+    private static final char SPACE = ' ';
+    private static final String INDENT = "  ";
+    private static final int CACHED_ROW_NUMBERS = 100;
+    private static final String[] ROW_NUMBERS = new String[CACHED_ROW_NUMBERS];
+
+    static {
+        for (int i = 0; i < CACHED_ROW_NUMBERS; i++) {
+            // numbers of y coordinate take two characters
+            ROW_NUMBERS[i] = i < 10 ? i + " " : Integer.toString(i);
+        }
+    }
+
+    /**
+     * Header and border lines by (number of columns, cell width).
+     */
+    private static final Map<Integer, String[]> FRAMES = new ConcurrentHashMap<>();
+
+    private StreamingMatrixPrinter() {
+    }
+
+    /**
+     * Prints the table with specified printer.
+     *
+     * @param table     table to print
+     * @param printer   printer (null cells are printed as spaces)
+     * @param cellWidth width of every cell (shorter values are padded with spaces)
+     * @param out       output
+     * @param <T>       type of data in table
+     * @throws IllegalArgumentException if no tabular data provided or no instance of Printer provided
+     * @throws UncheckedIOException     if output cannot be written
+     */
+    public static <T> void print(T[][] table, Printer<T> printer, int cellWidth, Appendable out)
+            throws IllegalArgumentException, UncheckedIOException {
+        if (table == null)
+            throw new IllegalArgumentException("No tabular data provided");
+        if (table.length == 0)
+            return;
+        if (printer == null)
+            throw new IllegalArgumentException("No instance of Printer provided");
+
+        int columns = 0;
+        for (T[] row : table) {
+            if (row != null) columns = Math.max(columns, row.length);
+        }
+        long start = Metrics.start();
+        String[] frame = getFrame(columns, cellWidth);
+        long characters = frame[0].length();
+        try {
+            out.append(frame[0]);
+            int counter = 0;
+            for (T[] row : table) {
+                if (row == null) continue;
+                String number = rowNumber(counter++);
+                out.append(number).append(VERTICAL_BORDER);
+                for (int i = 0; i < columns; i++) {
+                    T value = i < row.length ? row[i] : null;
+                    characters += appendCell(value == null ? null : printer.print(value), cellWidth, out);
+                    out.append(VERTICAL_BORDER);
+                }
+                out.append('\n').append(frame[1]);
+                characters += number.length() + columns + 2 + frame[1].length();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        if (Metrics.ENABLED) Metrics.render(start, characters);
+    }
+
+    /**
+     * Prints the table of state codes, every state is printed as its constant value.
+     *
+     * @param cells     state codes of the cells by rows (y * columns + x)
+     * @param columns   number of columns
+     * @param values    values of the states (indexed by state code)
+     * @param cellWidth width of every cell (shorter values are padded with spaces)
+     * @param out       output
+     * @throws IllegalArgumentException if no tabular data provided or number of columns is not positive
+     * @throws UncheckedIOException     if output cannot be written
+     */
+    public static void print(byte[] cells, int columns, String[] values, int cellWidth, Appendable out)
+            throws IllegalArgumentException, UncheckedIOException {
+        if (cells == null || values == null)
+            throw new IllegalArgumentException("No tabular data provided");
+        if (columns <= 0)
+            throw new IllegalArgumentException("Number of columns must be positive");
+
+        long startTime = Metrics.start();
+        String[] frame = getFrame(columns, cellWidth);
+        long characters = frame[0].length();
+        try {
+            out.append(frame[0]);
+            for (int start = 0, row = 0; start < cells.length; start += columns, row++) {
+                String number = rowNumber(row);
+                out.append(number).append(VERTICAL_BORDER);
+                for (int i = start; i < start + columns; i++) {
+                    characters += appendCell(i < cells.length ? values[cells[i]] : null, cellWidth, out);
+                    out.append(VERTICAL_BORDER);
+                }
+                out.append('\n').append(frame[1]);
+                characters += number.length() + columns + 2 + frame[1].length();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        if (Metrics.ENABLED) Metrics.render(startTime, characters);
+    }
+
+    /**
+     * @param columns   number of columns
+     * @param cellWidth width of every cell
+     * @return header with the first border line and border line (both with line separators)
+     */
+    static String[] getFrame(int columns, int cellWidth) {
+        return FRAMES.computeIfAbsent(columns << 16 | cellWidth, key -> {
+            StringBuilder border = new StringBuilder(INDENT).append(BORDER_KNOT);
+            for (int i = 0; i < columns; i++) {
+                border.append(String.valueOf(HORIZONTAL_BORDER).repeat(cellWidth)).append(BORDER_KNOT);
+            }
+            border.append('\n');
+
+            // add numbers of x coordinate
+            StringBuilder header = new StringBuilder(INDENT);
+            int lineLength = border.length() - INDENT.length() - 1;
+            for (int i = 0; i < lineLength / 4; i++) {
+                header.append(INDENT).append(i).append(SPACE);
+            }
+            header.append('\n').append(border);
+            return new String[]{header.toString(), border.toString()};
+        });
+    }
+
+    private static String rowNumber(int row) {
+        return row < CACHED_ROW_NUMBERS ? ROW_NUMBERS[row] : Integer.toString(row);
+    }
+
+    /**
+     * @return number of appended characters
+     */
+    private static int appendCell(String value, int cellWidth, Appendable out) throws IOException {
+        int length = 0;
+        if (value != null) {
+            out.append(value);
+            length = value.length();
+        }
+        for (int i = length; i < cellWidth; i++) {
+            out.append(SPACE);
+        }
+        return Math.max(length, cellWidth);
+    }
+}
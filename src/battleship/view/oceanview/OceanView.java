@@ -2,22 +2,53 @@ package battleship.view.oceanview;
 
 import battleship.model.game.AttackReport;
 import battleship.model.game.ocean.Point;
-import battleship.view.matrixprinter.PrettyMatrixPrinter;
+import battleship.view.AnsiTerminal;
+import battleship.view.matrixprinter.StreamingMatrixPrinter;
 
 import java.util.List;
 
 public class OceanView {
-    private final ShipCellView[][] oceanView;
-
     /**
-     * @return OceanView
+     * Values of the cell states, indexed by state code.
      */
-    public ShipCellView[][] getOceanView() {
-        return oceanView;
+    private static final String[] GLYPHS;
+
+    static {
+        ShipCellView[] states = ShipCellView.values();
+        GLYPHS = new String[states.length];
+        for (ShipCellView state : states) {
+            GLYPHS[state.getState()] = state.toString().intern();
+        }
     }
 
+    private final int sizeHorizontal;
+    private final int sizeVertical;
+    /**
+     * State codes of the cells (y * horizontal size + x), see {@link ShipCellView#getState()}.
+     */
+    private final byte[] cells;
+    /**
+     * Cells changed since the last call of printChangedCells: bit set and list of indexes.
+     */
+    private final long[] changed;
+    private final short[] changedCells;
+    private int changedCount;
+
     public OceanView(int sizeHorizontal, int sizeVertical) {
-        oceanView = new ShipCellView[sizeVertical][sizeHorizontal];
+        this.sizeHorizontal = sizeHorizontal;
+        this.sizeVertical = sizeVertical;
+        cells = new byte[sizeHorizontal * sizeVertical];
+        changed = new long[(cells.length + 63) >>> 6];
+        changedCells = new short[cells.length];
+    }
+
+    /**
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @return view of the cell
+     */
+    public ShipCellView getCell(int x, int y) {
+        return ShipCellView.of(cells[y * sizeHorizontal + x]);
     }
 
     /**
@@ -27,25 +58,20 @@ public class OceanView {
      * @return String with additional info
      */
     public String updateOceanView(AttackReport report) {
-        if (report.getPosition().x() < 0 || report.getPosition().x() >= getOceanHorizontalLength() ||
-                report.getPosition().y() < 0 || report.getPosition().y() >= getOceanVerticalLength()) {
+        if (report.getPosition().x() < 0 || report.getPosition().x() >= sizeHorizontal ||
+                report.getPosition().y() < 0 || report.getPosition().y() >= sizeVertical) {
             return "Attacking position was out of the ocean.";
         }
 
-        if (oceanView[report.getPosition().y()][report.getPosition().x()] == null) {
-            oceanView[report.getPosition().y()][report.getPosition().x()] = new ShipCellView();
-        }
         // if ship was sunk
         if (report.getPointsOccupiedByShip() != null) {
             for (Point point : report.getPointsOccupiedByShip()) {
-                if (oceanView[point.y()][point.x()] == null)
-                    oceanView[point.y()][point.x()] = new ShipCellView();
-                oceanView[point.y()][point.x()].shipWasAttackByUser(report);
+                attackCell(point, report);
             }
             return "You just have sunk a " + report.getShip().toString();
         } else {
             // ship was hit
-            oceanView[report.getPosition().y()][report.getPosition().x()].shipWasAttackByUser(report);
+            attackCell(report.getPosition(), report);
         }
         return "";
     }
@@ -56,7 +82,18 @@ public class OceanView {
      * @return String
      */
     public String printOcean() {
-        return PrettyMatrixPrinter.print(oceanView);
+        StringBuilder builder = new StringBuilder();
+        printOcean(builder);
+        return builder.toString();
+    }
+
+    /**
+     * print Ocean to the output
+     *
+     * @param out output
+     */
+    public void printOcean(Appendable out) {
+        StreamingMatrixPrinter.print(cells, sizeHorizontal, GLYPHS, ShipCellView.WIDTH, out);
     }
 
     /**
@@ -65,7 +102,7 @@ public class OceanView {
      * @return int size > 0
      */
     public int getOceanHorizontalLength() {
-        return oceanView[0].length;
+        return sizeHorizontal;
     }
 
     /**
@@ -74,7 +111,7 @@ public class OceanView {
      * @return int size > 0
      */
     public int getOceanVerticalLength() {
-        return oceanView.length;
+        return sizeVertical;
     }
 
     /**
@@ -84,7 +121,55 @@ public class OceanView {
      */
     public void recoverShipCellsByPoints(List<Point> points) {
         for (Point point : points) {
-            oceanView[point.y()][point.x()] = null;
+            int cell = point.y() * sizeHorizontal + point.x();
+            if (cells[cell] == ShipCellView.UNKNOWN.getState()) continue;
+            cells[cell] = ShipCellView.UNKNOWN.getState();
+            markChanged(cell);
+        }
+    }
+
+    /**
+     * Print cells changed since the previous call as ANSI cursor moves and cell values
+     * (the ocean must be already printed on the screen).
+     *
+     * @param out       output
+     * @param firstLine line of the screen where the ocean (numbers of x coordinate) is printed
+     */
+    public void printChangedCells(StringBuilder out, int firstLine) {
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            int x = cell % sizeHorizontal;
+            int y = cell / sizeHorizontal;
+            // numbers of y coordinate and vertical border take 3 columns, every row has border line before it
+            AnsiTerminal.moveCursor(out, firstLine + 2 + y * 2, 4 + x * (ShipCellView.WIDTH + 1));
+            out.append(GLYPHS[cells[cell]]);
+        }
+        clearChangedCells();
+    }
+
+    /**
+     * Forget changed cells (when the whole ocean has been printed).
+     */
+    public void clearChangedCells() {
+        for (int i = 0; i < changedCount; i++) {
+            changed[changedCells[i] >>> 6] = 0;
+        }
+        changedCount = 0;
+    }
+
+    private void attackCell(Point point, AttackReport report) {
+        int cell = point.y() * sizeHorizontal + point.x();
+        byte state = ShipCellView.of(cells[cell]).shipWasAttackByUser(report).getState();
+        if (cells[cell] == state) return;
+        cells[cell] = state;
+        markChanged(cell);
+    }
+
+    private void markChanged(int cell) {
+        long bit = 1L << cell;
+        if ((changed[cell >>> 6] & bit) == 0) {
+            changed[cell >>> 6] |= bit;
+            changedCells[changedCount++] = (short) cell;
         }
     }
 }
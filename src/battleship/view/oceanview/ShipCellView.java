@@ -2,26 +2,69 @@ package battleship.view.oceanview;
 
 import battleship.model.game.AttackReport;
 
-public class ShipCellView {
-    private boolean wasHit;
-    private boolean isSunk;
+/**
+ * State of the ocean cell known to the user.
+ * States are ordered, the cell can only move to the later state until the attack is cancelled.
+ */
+public enum ShipCellView {
+    /**
+     * Cell was never attacked.
+     */
+    UNKNOWN("   "),
+    /**
+     * There is no ship on this cell.
+     */
+    MISS(" . "),
+    /**
+     * Ship on this cell was hit.
+     */
+    HIT(" * "),
+    /**
+     * Ship on this cell was sunk.
+     */
+    SUNK(" x ");
+
+    /**
+     * Width of the cell in characters.
+     */
+    public static final int WIDTH = 3;
 
-    public ShipCellView() {
-        wasHit = false;
-        isSunk = false;
+    private static final ShipCellView[] STATES = values();
+
+    private final String view;
+
+    ShipCellView(String view) {
+        this.view = view;
+    }
+
+    /**
+     * @param state state code
+     * @return cell view of the state
+     */
+    public static ShipCellView of(byte state) {
+        return STATES[state];
+    }
+
+    /**
+     * @return state code (0 for the cell which was never attacked)
+     */
+    public byte getState() {
+        return (byte) ordinal();
     }
 
     /**
      * update cell status if it was attacked by user
      *
      * @param result attack report
+     * @return new status of the cell
      */
-    public void shipWasAttackByUser(AttackReport result) {
-        if (result.getResult() != AttackReport.HitResult.MISS)
-            wasHit = true;
-        if (result.getResult() == AttackReport.HitResult.SUNK) {
-            isSunk = true;
-        }
+    public ShipCellView shipWasAttackByUser(AttackReport result) {
+        ShipCellView attacked = switch (result.getResult()) {
+            case MISS -> MISS;
+            case HIT -> HIT;
+            case SUNK -> SUNK;
+        };
+        return attacked.compareTo(this) > 0 ? attacked : this;
     }
 
     /**
@@ -31,11 +74,6 @@ public class ShipCellView {
      */
     @Override
     public String toString() {
-        // ship on this cell was sunk
-        if (isSunk) return " x ";
-        // ship on this cell was hit
-        if (wasHit) return " * ";
-            // there is no ship on this cell
-        else return " . ";
+        return view;
     }
 }